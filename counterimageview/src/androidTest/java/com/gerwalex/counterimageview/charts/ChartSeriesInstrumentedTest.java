@@ -0,0 +1,81 @@
+package com.gerwalex.counterimageview.charts;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.gerwalex.counterimageview.DecoView;
+import com.gerwalex.counterimageview.events.DecoEvent;
+import com.nineoldandroids.animation.ValueAnimator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test, which will execute on an Android device.
+ *
+ * @see <a href="http://d.android.com/tools/testing">Testing documentation</a>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChartSeriesInstrumentedTest {
+    static private final int REPLAYS = 20;
+
+    @Test
+    public void replayEffectAndReset_reusesSeriesObjects() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+                DecoView decoView = new DecoView(appContext);
+                int index = decoView.addSeries(new SeriesItem.Builder(Color.RED)
+                        .setRange(0, 100, 50)
+                        .setLineWidth(20)
+                        .build());
+                ChartSeries chartSeries = decoView.getChartSeries(index);
+                DecoEvent effect = new DecoEvent.Builder(DecoDrawEffect.EffectType.EFFECT_SPIRAL_OUT)
+                        .setIndex(index)
+                        .setDuration(1000)
+                        .build();
+                DecoEvent move = new DecoEvent.Builder(75)
+                        .setIndex(index)
+                        .setDuration(1000)
+                        .build();
+                Canvas canvas = new Canvas(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888));
+                RectF bounds = new RectF(20, 20, 180, 180);
+
+                final Paint paint = chartSeries.mPaint;
+                final RectF seriesBounds = chartSeries.mBounds;
+                final RectF seriesBoundsInset = chartSeries.mBoundsInset;
+                DecoDrawEffect drawEffect = null;
+                ValueAnimator valueAnimator = null;
+                for (int i = 0; i < REPLAYS; i++) {
+                    chartSeries.startAnimateEffect(effect);
+                    chartSeries.draw(canvas, bounds);
+                    if (i == 0) {
+                        drawEffect = chartSeries.mEffect;
+                        valueAnimator = chartSeries.getValueAnimator();
+                        assertNotNull(drawEffect);
+                        assertNotNull(valueAnimator);
+                    }
+                    assertSame("Effect replay " + i, drawEffect, chartSeries.mEffect);
+                    chartSeries.startAnimateMove(move);
+                    chartSeries.draw(canvas, bounds);
+                    chartSeries.reset();
+                    chartSeries.draw(canvas, bounds);
+                    assertSame("Animator replay " + i, valueAnimator, chartSeries.getValueAnimator());
+                    assertSame("Paint replay " + i, paint, chartSeries.mPaint);
+                    assertSame("Bounds replay " + i, seriesBounds, chartSeries.mBounds);
+                    assertSame("Inset bounds replay " + i, seriesBoundsInset, chartSeries.mBoundsInset);
+                }
+            }
+        });
+    }
+}
@@ -17,35 +17,106 @@ package com.gerwalex.counterimageview;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Path;
+import android.graphics.PointF;
 import android.graphics.RectF;
 import android.os.Build;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.View;
 
+import androidx.annotation.ChecksSdkIntAtLeast;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.gerwalex.counterimageview.charts.ArcSeries;
 import com.gerwalex.counterimageview.charts.ChartSeries;
 import com.gerwalex.counterimageview.charts.DecoDrawEffect;
 import com.gerwalex.counterimageview.charts.LineArcSeries;
 import com.gerwalex.counterimageview.charts.LineSeries;
 import com.gerwalex.counterimageview.charts.PieSeries;
+import com.gerwalex.counterimageview.charts.RingSet;
+import com.gerwalex.counterimageview.charts.SegmentedSeries;
 import com.gerwalex.counterimageview.charts.SeriesItem;
+import com.gerwalex.counterimageview.charts.ShaderCache;
 import com.gerwalex.counterimageview.events.DecoEvent;
 import com.gerwalex.counterimageview.events.DecoEventManager;
 import com.gerwalex.counterimageview.util.GenericFunctions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Android Custom View for displaying animated Arc based charts
  */
 @SuppressWarnings("unused")
 public class DecoView extends View implements DecoEventManager.ArcEventManagerListener {
+    /**
+     * Number of frames in the rolling window used to measure the average draw time
+     */
+    static private final int FRAME_WINDOW = 16;
+    /**
+     * Quality is only restored once the average draw time falls below this portion of the
+     * budget. This stops the quality flipping between two levels on every window
+     */
+    static private final float FRAME_RECOVER_RATIO = 0.5f;
+    /**
+     * Interval between checks for the end of effects while a hardware layer is in use
+     */
+    static private final long LAYER_CHECK_INTERVAL = 100;
+    /**
+     * Largest view, in pixels, that will be given a hardware layer automatically. This keeps the
+     * texture memory used by the layer bounded
+     */
+    static private final long MAX_HARDWARE_LAYER_PIXELS = 1024 * 1024;
     private final String TAG = getClass().getSimpleName();
+    /**
+     * Geometry of consecutive series that share the same paint state, drawn with one call
+     */
+    private final Path mBatchPath = new Path();
+    /**
+     * Size of the arc bounds below which each render quality is applied, indexed by the ordinal
+     * of the quality. 0 if the quality is not applied based on size
+     */
+    private final float[] mDetailSizes = new float[RenderQuality.values().length];
+    /**
+     * Draw time in nanoseconds of the most recent frames, used as a ring buffer
+     */
+    private final long[] mFrameTimes = new long[FRAME_WINDOW];
+    /**
+     * Area occupied by the run of labels currently being placed by
+     * {@link #resolveLabelOverlap(int, int)}
+     */
+    private final RectF mLabelRun = new RectF();
+    /**
+     * Removes the hardware layer once no series is drawing an effect
+     */
+    private final Runnable mLayerCheck = new Runnable() {
+        @Override
+        public void run() {
+            if (isEffectRunning()) {
+                postDelayed(this, LAYER_CHECK_INTERVAL);
+            } else {
+                releaseHardwareLayer();
+            }
+        }
+    };
+    /**
+     * Automatically switch to a hardware layer while effects are played
+     */
+    private boolean mAutoHardwareLayer = true;
+    /**
+     * Draw consecutive series with the same paint state in a single draw call
+     */
+    private boolean mBatchingEnabled = true;
+    /**
+     * Render quality chosen by the frame budget, before the quality required by the size of the
+     * view is applied
+     */
+    private RenderQuality mBudgetQuality = RenderQuality.QUALITY_FULL;
     /**
      * Bounds for drawing the arcs
      */
@@ -69,8 +140,80 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
      * The default line width used for the arcs
      */
     private float mDefaultLineWidth = 30;
+    /**
+     * Time in nanoseconds allowed for one call to {@link #onDraw(Canvas)}. If the average draw
+     * time exceeds this the render quality is reduced. 0 disables the watchdog
+     */
+    private long mFrameBudgetNanos;
+    /**
+     * Number of frames recorded in {@link #mFrameTimes} since the last quality change
+     */
+    private int mFrameCount;
+    /**
+     * Next position to write in {@link #mFrameTimes}
+     */
+    private int mFrameIndex;
+    /**
+     * Sum of all entries in {@link #mFrameTimes}
+     */
+    private long mFrameTotal;
     private HorizGravity mHorizGravity = HorizGravity.GRAVITY_HORIZONTAL_CENTER;
+    /**
+     * Set while the view is using a hardware layer that was enabled for an effect
+     */
+    private boolean mHardwareLayerActive;
+    /**
+     * Set when {@link #pauseAll()} has suspended all animations and events
+     */
+    private boolean mIsPausedAll;
+    /**
+     * Have the label positions in {@link #mMeasureViewableArea} been calculated for the current
+     * series and angles
+     */
+    private boolean mLabelPositionsValid;
+    /**
+     * Size of the arc bounds below which labels are not drawn, see {@link #setLabelMinSize(float)}
+     */
+    private float mLabelMinSize;
+    /**
+     * Set when the arc bounds are too small for labels to be drawn
+     */
+    private boolean mLabelsHidden;
+    /**
+     * Bounds of each label being drawn this frame, null if the label is not drawn
+     */
+    private RectF[] mLabelRects;
+    /**
+     * Labels to draw this frame, sorted by angle. Each entry holds the bits of the angle in the
+     * upper half and the series index in the lower half, so a primitive sort can be used
+     */
+    private long[] mLabelSort;
+    /**
+     * Position percent of each series when the label positions were last calculated
+     */
+    private float[] mLabelSeriesPercent;
+    /**
+     * Visibility of each series when the label positions were last calculated
+     */
+    private boolean[] mLabelSeriesVisible;
     private float[] mMeasureViewableArea;
+    /**
+     * Lowest render quality required by the size of the view, see
+     * {@link #setLevelOfDetail(RenderQuality, float)}
+     */
+    private RenderQuality mQualityFloor = RenderQuality.QUALITY_FULL;
+    /**
+     * Draw each series through its own RenderNode when supported by the canvas
+     */
+    private boolean mRenderNodesEnabled = true;
+    /**
+     * Current render quality applied to all series
+     */
+    private RenderQuality mRenderQuality = RenderQuality.QUALITY_FULL;
+    /**
+     * Concentric rings drawn behind the series, see {@link #setRingSet(RingSet)}
+     */
+    private RingSet mRingSet;
     /**
      * RotateAngle adjusts the angle of the start point for drawing. It should be noted that the
      * behavior is different based on if the arc is a full circle or a part circle. If it is a
@@ -79,6 +222,49 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
      * as the defaults
      */
     private int mRotateAngle;
+    /**
+     * Index of the last series drawn after each series with the same inset, or -1 if there is
+     * none. A series can only be covered by a series with the same inset, so only this series
+     * is checked by {@link #updateSeriesCovered()}
+     */
+    private int[] mSeriesCoverCandidate = new int[0];
+    /**
+     * Which series are completely hidden by a series drawn after them, see
+     * {@link #updateSeriesCovered()}
+     */
+    private boolean[] mSeriesCovered = new boolean[0];
+    /**
+     * Combined draw version of all series when {@link #mSeriesCovered} was calculated
+     */
+    private int mSeriesCoveredVersion;
+    /**
+     * Can {@link #mSeriesCovered} be used while the draw versions of the series are unchanged.
+     * Cleared when the layout changes or any series was animating
+     */
+    private boolean mSeriesCoveredValid;
+    /**
+     * Bitmap holding the leading series that are idle, so they do not need to be redrawn on
+     * every frame while other series animate on top of them
+     */
+    private Bitmap mStaticLayer;
+    /**
+     * Arc bounds used when {@link #mStaticLayer} was drawn
+     */
+    private RectF mStaticBounds;
+    private Canvas mStaticCanvas;
+    /**
+     * Number of series drawn into {@link #mStaticLayer}
+     */
+    private int mStaticCount;
+    /**
+     * Is caching of idle series into {@link #mStaticLayer} enabled
+     */
+    private boolean mStaticLayerEnabled;
+    /**
+     * Series drawn into {@link #mStaticLayer} and their draw version at the time
+     */
+    private ChartSeries[] mStaticSeries;
+    private int[] mStaticVersions;
     /**
      * Total angle of the orb. 360 = full circle, < 360 horseshoe/arc shape
      */
@@ -115,6 +301,30 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         initView();
     }
 
+    /**
+     * Switch the view to a hardware layer for the duration of an effect, if enabled. The layer
+     * is only applied when the view has no layer type set by the user and is small enough to
+     * keep the texture memory bounded. It is removed by {@link #mLayerCheck} once no series is
+     * drawing an effect
+     *
+     * @param duration expected duration of the effect in milliseconds
+     */
+    private void acquireHardwareLayer(long duration) {
+        if (!mAutoHardwareLayer) {
+            return;
+        }
+        if (!mHardwareLayerActive) {
+            if (getLayerType() != LAYER_TYPE_NONE || !isHardwareAccelerated() ||
+                    (long) getWidth() * getHeight() > MAX_HARDWARE_LAYER_PIXELS) {
+                return;
+            }
+            setLayerType(LAYER_TYPE_HARDWARE, null);
+            mHardwareLayerActive = true;
+        }
+        removeCallbacks(mLayerCheck);
+        postDelayed(mLayerCheck, Math.max(duration, LAYER_CHECK_INTERVAL));
+    }
+
     /**
      * Add an event to the DynamicArcViews {@link DecoEventManager} for processing. This can be
      * executed immediately or if the event has a DecoEvent#mDelay set then it will be
@@ -159,14 +369,17 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         ChartSeries chartSeries;
         switch (seriesItem.getChartStyle()) {
             case STYLE_DONUT:
-                chartSeries = new LineArcSeries(seriesItem, mTotalAngle, mRotateAngle);
+                if (seriesItem.getSegmentCount() > 0) {
+                    chartSeries = new SegmentedSeries(seriesItem, mTotalAngle, mRotateAngle);
+                } else {
+                    chartSeries = new LineArcSeries(seriesItem, mTotalAngle, mRotateAngle);
+                }
                 break;
             case STYLE_PIE:
                 chartSeries = new PieSeries(seriesItem, mTotalAngle, mRotateAngle);
                 break;
             case STYLE_LINE_HORIZONTAL:
             case STYLE_LINE_VERTICAL:
-                Log.w(TAG, "STYLE_LINE_* is currently experimental");
                 LineSeries lineSeries = new LineSeries(seriesItem, mTotalAngle, mRotateAngle);
                 lineSeries.setHorizGravity(mHorizGravity);
                 lineSeries.setVertGravity(mVertGravity);
@@ -175,12 +388,40 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
             default:
                 throw new IllegalStateException("Chart Style not implemented");
         }
+        chartSeries.setRenderQuality(mRenderQuality);
         mChartSeries.add(mChartSeries.size(), chartSeries);
         mMeasureViewableArea = new float[mChartSeries.size()];
+        mLabelSeriesPercent = new float[mChartSeries.size()];
+        mLabelSeriesVisible = new boolean[mChartSeries.size()];
+        mLabelRects = new RectF[mChartSeries.size()];
+        mLabelSort = new long[mChartSeries.size()];
+        mLabelPositionsValid = false;
         recalcLayout();
         return mChartSeries.size() - 1;
     }
 
+    /**
+     * Select the render quality and label visibility for the current size of the arc bounds.
+     * This is only done when the layout is calculated, so the quality never changes from one
+     * frame to the next while animating
+     */
+    private void applyLevelOfDetail() {
+        final float size = Math.min(mArcBounds.width(), mArcBounds.height());
+        final RenderQuality[] levels = RenderQuality.values();
+        RenderQuality floor = RenderQuality.QUALITY_FULL;
+        for (int i = levels.length - 1; i > 0; i--) {
+            if (size < mDetailSizes[i]) {
+                floor = levels[i];
+                break;
+            }
+        }
+        mLabelsHidden = size < mLabelMinSize;
+        if (mQualityFloor != floor) {
+            mQualityFloor = floor;
+            setRenderQuality(mBudgetQuality);
+        }
+    }
+
     /**
      * Alter the total degrees of the ArcView and applies a rotation angle to change the start
      * position. If this is 360 then the view is a full circle. 270 degrees is 3/4 of a circle
@@ -205,6 +446,7 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
                 chartSeries.setupView(mTotalAngle, mRotateAngle);
             }
         }
+        mLabelPositionsValid = false;
     }
 
     /**
@@ -231,9 +473,9 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
     }
 
     /**
-     * Allows DecoView to draw drop shadows. This should be enabled if you plan on using the
-     * feature SeriesItem.setShadowSize(float) to add a drop shadow on one or more of your arc
-     * series. Calling this function need only be done once.
+     * Allows DecoView to draw drop shadows with a paint shadow layer before API 28. Arc series
+     * now draw their shadows from a pre-rendered mask, so this is only required for shadows on a
+     * {@link LineSeries}. Calling this function need only be done once.
      */
     public void disableHardwareAccelerationForDecoView() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
@@ -242,23 +484,144 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
     }
 
     /**
-     * Allows your app to use the EdgeDetail decoration by disabling Hardware acceleration
-     * for the view on android API 11 - 17.
+     * Draw the series collected in {@link #mBatchPath} and clear the path for the next batch
+     *
+     * @param canvas     the canvas on which the view will be drawn
+     * @param batchOwner first series of the batch
+     */
+    private void drawBatch(Canvas canvas, ChartSeries batchOwner) {
+        batchOwner.drawBatch(canvas, mBatchPath);
+        mBatchPath.rewind();
+    }
+
+    /**
+     * Draw all series and their labels
+     *
+     * @param canvas the canvas on which the view will be drawn
+     */
+    private void drawSeries(Canvas canvas) {
+        if (mRingSet != null) {
+            mRingSet.draw(canvas, mArcBounds, mTotalAngle, mRotateAngle);
+        }
+        if (mChartSeries != null) {
+            final boolean useRenderNodes = isRenderNodeSupported(canvas);
+            updateSeriesCovered();
+            final int staticCount = useRenderNodes ? 0 : drawStaticLayer(canvas);
+            boolean labelsSupported = true;
+            // First series of the batch being collected, its paint is used to draw the batch
+            ChartSeries batchOwner = null;
+            for (int i = 0; i < mChartSeries.size(); i++) {
+                ChartSeries chartSeries = mChartSeries.get(i);
+                if (useRenderNodes) {
+                    if (!mSeriesCovered[i]) {
+                        chartSeries.drawRenderNode(canvas, mArcBounds, mCanvasWidth, mCanvasHeight);
+                    }
+                } else if (i >= staticCount && !mSeriesCovered[i]) {
+                    if (mBatchingEnabled && chartSeries.prepareBatch(canvas, mArcBounds)) {
+                        if (batchOwner != null && !batchOwner.canBatchWith(chartSeries)) {
+                            drawBatch(canvas, batchOwner);
+                            batchOwner = null;
+                        }
+                        if (batchOwner == null) {
+                            batchOwner = chartSeries;
+                        }
+                        chartSeries.appendToBatch(mBatchPath);
+                    } else {
+                        if (batchOwner != null) {
+                            // Keep the drawing order by completing the batch first
+                            drawBatch(canvas, batchOwner);
+                            batchOwner = null;
+                        }
+                        chartSeries.draw(canvas, mArcBounds);
+                    }
+                }
+                // labels Unsupported if one or more series run anticlockwise
+                labelsSupported &= (!chartSeries.isVisible() || chartSeries.getSeriesItem().getSpinClockwise());
+            }
+            if (batchOwner != null) {
+                drawBatch(canvas, batchOwner);
+            }
+            // Draw the labels as a second pass as we want all labels to be on top of all
+            // series data
+            if (labelsSupported && !mLabelsHidden) {
+                updateLabelPositions();
+                int count = 0;
+                for (int i = 0; i < mMeasureViewableArea.length; i++) {
+                    mLabelRects[i] = null;
+                    if (mMeasureViewableArea[i] >= 0f) {
+                        mLabelRects[i] = mChartSeries.get(i).layoutLabel(canvas, mArcBounds, mMeasureViewableArea[i]);
+                        if (mLabelRects[i] != null) {
+                            mLabelSort[count++] = ((long) Float.floatToIntBits(mMeasureViewableArea[i]) << 32) | i;
+                        }
+                    }
+                }
+                resolveLabelOverlap(count, canvas.getHeight());
+                for (int i = 0; i < mLabelRects.length; i++) {
+                    if (mLabelRects[i] != null) {
+                        mChartSeries.get(i).getSeriesItem().getSeriesLabel().drawLayout(canvas);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw the cached layer of idle series. Only the run of idle series at the start of the
+     * list is cached, so the order in which series are drawn is unchanged. The cache is redrawn
+     * whenever the bounds change or one of the cached series changes its drawing state
+     *
+     * @param canvas the canvas on which the view will be drawn
+     * @return number of series drawn from the cache
+     */
+    private int drawStaticLayer(Canvas canvas) {
+        if (!mStaticLayerEnabled) {
+            return 0;
+        }
+        int count = 0;
+        while (count < mChartSeries.size() && mChartSeries.get(count).isIdle()) {
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        if (!isStaticLayerValid(count)) {
+            if (mStaticLayer == null || mStaticLayer.getWidth() != mCanvasWidth ||
+                    mStaticLayer.getHeight() != mCanvasHeight) {
+                releaseStaticLayer();
+                mStaticLayer = Bitmap.createBitmap(mCanvasWidth, mCanvasHeight, Bitmap.Config.ARGB_8888);
+                mStaticCanvas = new Canvas(mStaticLayer);
+                mStaticBounds = new RectF();
+            } else {
+                mStaticLayer.eraseColor(Color.TRANSPARENT);
+            }
+            if (mStaticSeries == null || mStaticSeries.length < count) {
+                mStaticSeries = new ChartSeries[mChartSeries.size()];
+                mStaticVersions = new int[mChartSeries.size()];
+            }
+            for (int i = 0; i < count; i++) {
+                ChartSeries chartSeries = mChartSeries.get(i);
+                chartSeries.draw(mStaticCanvas, mArcBounds);
+                mStaticSeries[i] = chartSeries;
+                mStaticVersions[i] = chartSeries.getDrawVersion();
+            }
+            mStaticCount = count;
+            mStaticBounds.set(mArcBounds);
+        }
+        canvas.drawBitmap(mStaticLayer, 0, 0, null);
+        return count;
+    }
+
+    /**
+     * Disables Hardware acceleration for the view on android API 11 - 17.
      * <p/>
      * Calling this function will do nothing on all other API versions
      * <p/>
-     * This will turn off Hardware Acceleration for this view only
-     * <p/>
-     * If you do not call this function and you use EdgeDetails they will not display on the
-     * affected API versions.
-     * <p/>
-     * For more information about Hardware acceleration and this issue
-     * {@see http://developer.android.com/guide/topics/graphics/hardware-accel.html}
-     * <p/>
-     * The function causing the incompatibility is
-     * {@link Canvas#clipPath(Path)}
-     * This is used to clip the drawing rectangle to help render the Edge details decorations
+     * This was required for the EdgeDetail decoration which used {@link Canvas} clipping. Edge
+     * details are now drawn without clipping so this is no longer required.
+     *
+     * @deprecated EdgeDetail no longer requires software rendering
      */
+    @Deprecated
     public void enableCompatibilityMode() {
         if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2 &&
                 Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
@@ -298,6 +661,7 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
                     chartSeries.startAnimateEffect(event);
                 }
             }
+            acquireHardwareLayer(event.getEffectDuration());
             return true;
         }
         for (int i = 0; i < mChartSeries.size(); i++) {
@@ -306,6 +670,7 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
                 chartSeries.startAnimateEffect(event);
             }
         }
+        acquireHardwareLayer(event.getEffectDuration());
         return true;
     }
 
@@ -405,6 +770,7 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
     private DecoEventManager getEventManager() {
         if (mDecoEventManager == null) {
             mDecoEventManager = new DecoEventManager(this);
+            mDecoEventManager.setHardwareLayersEnabled(mAutoHardwareLayer);
         }
         return mDecoEventManager;
     }
@@ -413,22 +779,14 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
      * Determine where a label should be displayed given its position and the position of all
      * other data series
      *
-     * @param index position of index in {@link #mChartSeries} array
+     * @param positionPercent position of the series the label belongs to
+     * @param max             largest position of the visible series drawn after this series
      * @return < 0 if label not visible, else 0f .. 1.0f to indicate position on circle
      */
-    private float getLabelPosition(final int index) {
-        float max = 0.0f;
-        ChartSeries chartSeries = mChartSeries.get(index);
-        // We only need to check those series drawn after this series
-        for (int i = index + 1; i < mChartSeries.size(); i++) {
-            ChartSeries innerSeries = mChartSeries.get(i);
-            if (innerSeries.isVisible() && max < innerSeries.getPositionPercent()) {
-                max = innerSeries.getPositionPercent();
-            }
-        }
-        if (max < chartSeries.getPositionPercent()) {
+    private float getLabelPosition(float positionPercent, float max) {
+        if (max < positionPercent) {
             // Adjust for incomplete circles
-            float adjusted = ((chartSeries.getPositionPercent() + max) / 2) * ((float) mTotalAngle / 360f);
+            float adjusted = ((positionPercent + max) / 2) * ((float) mTotalAngle / 360f);
             // Adjust for rotation of start point
             float adjust = adjusted + (((float) mRotateAngle + 90f) / 360f);
             // Normalize
@@ -440,6 +798,18 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         return -1f;
     }
 
+    /**
+     * Retrieve the render quality currently applied to the series of this view. This is
+     * always {@link RenderQuality#QUALITY_FULL} unless a frame budget has been set with
+     * {@link #setFrameBudget(float)} or the view is small enough for a level of detail set with
+     * {@link #setLevelOfDetail(RenderQuality, float)} to apply
+     *
+     * @return current render quality
+     */
+    public RenderQuality getRenderQuality() {
+        return mRenderQuality;
+    }
+
     /**
      * Retrieve the {@link SeriesItem} based on the index
      *
@@ -460,10 +830,10 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
      * @return widest arc line
      */
     private float getWidestLine() {
+        float widest = mRingSet != null ? mRingSet.getLineWidth() : 0;
         if (mChartSeries == null) {
-            return 0;
+            return widest;
         }
-        float widest = 0;
         for (ChartSeries chartSeries : mChartSeries) {
             widest = Math.max(chartSeries.getSeriesItem().getLineWidth(), widest);
         }
@@ -472,10 +842,26 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
 
     private void initView() {
         GenericFunctions.initialize(getContext());
-        enableCompatibilityMode();
+        ShaderCache.initialize(getContext());
         createVisualEditorTrack();
     }
 
+    /**
+     * Determine if any series is currently drawing an effect
+     *
+     * @return true if an effect is being drawn
+     */
+    private boolean isEffectRunning() {
+        if (mChartSeries != null) {
+            for (ChartSeries chartSeries : mChartSeries) {
+                if (chartSeries.isEffectRunning()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Determines if any arcs have been added to the view
      *
@@ -485,6 +871,72 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         return mChartSeries == null || mChartSeries.isEmpty();
     }
 
+    /**
+     * Determines if the view has been paused using {@link #pauseAll()}
+     *
+     * @return true if all animations and events are paused
+     */
+    public boolean isPausedAll() {
+        return mIsPausedAll;
+    }
+
+    /**
+     * Determine if each series can be drawn through its own RenderNode. This requires API 29+
+     * and a hardware accelerated canvas
+     *
+     * @param canvas the canvas on which the view will be drawn
+     * @return true if series are to be drawn with {@link ChartSeries#drawRenderNode}
+     */
+    @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.Q)
+    private boolean isRenderNodeSupported(Canvas canvas) {
+        return mRenderNodesEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q &&
+                canvas.isHardwareAccelerated();
+    }
+
+    /**
+     * Determine if the cached layer still matches the first count series
+     *
+     * @param count number of leading idle series
+     * @return true if the cached layer can be drawn as is
+     */
+    private boolean isStaticLayerValid(int count) {
+        if (mStaticLayer == null || count != mStaticCount || !mStaticBounds.equals(mArcBounds) ||
+                mStaticLayer.getWidth() != mCanvasWidth || mStaticLayer.getHeight() != mCanvasHeight) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            ChartSeries chartSeries = mChartSeries.get(i);
+            if (mStaticSeries[i] != chartSeries || mStaticVersions[i] != chartSeries.getDrawVersion()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Link a series used as a background track to the series drawn on top of it. Only the part
+     * of the track not yet covered by the other series is then drawn, so the covered part is not
+     * filled twice on every frame. The track is drawn in full whenever the other series is not
+     * opaque or does not exactly overlay the track
+     *
+     * @param trackIndex  index of the background track series
+     * @param seriesIndex index of the series drawn on top of the track, must be added after it
+     */
+    public void linkTrackSeries(int trackIndex, int seriesIndex) {
+        ChartSeries track = getChartSeries(trackIndex);
+        ChartSeries series = getChartSeries(seriesIndex);
+        if (!(track instanceof ArcSeries) || !(series instanceof ArcSeries)) {
+            throw new IllegalArgumentException(
+                    "Invalid index: Track and series must both be arc series (Track: " + trackIndex + " Series: " +
+                            seriesIndex + ")");
+        }
+        if (trackIndex >= seriesIndex) {
+            throw new IllegalArgumentException("Track must be added before the series drawn on top of it");
+        }
+        ((ArcSeries) track).setCoverSeries((ArcSeries) series);
+        invalidate();
+    }
+
     /**
      * Basic wrapper function to create an event with all defaults for the arc and simply execute
      * a move for the current position of the arc. If you want to customize the move (such as delay,
@@ -519,6 +971,20 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         addEvent(new DecoEvent.Builder(position).setIndex(index).setDuration(duration).build());
     }
 
+    /**
+     * Move a label vertically clear of a label that has already been placed
+     *
+     * @param rect   bounds of the label to move
+     * @param placed bounds of the label it overlaps
+     * @param down   true to move the label below the placed label, false to move it above
+     * @param height height of the canvas
+     * @return false if the label can not be moved without leaving the canvas
+     */
+    private boolean nudgeLabel(RectF rect, RectF placed, boolean down, int height) {
+        rect.offset(0, down ? placed.bottom - rect.top : placed.top - rect.bottom);
+        return rect.top >= 0 && rect.bottom <= height;
+    }
+
     /**
      * This is called when the view is detached from a window. At this point it no longer has a
      * surface for drawing, so we need to remove all scheduled events from the event manager
@@ -529,6 +995,16 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         if (mDecoEventManager != null) {
             mDecoEventManager.resetEvents();
         }
+        releaseHardwareLayer();
+        releaseStaticLayer();
+        if (mChartSeries != null) {
+            for (ChartSeries chartSeries : mChartSeries) {
+                chartSeries.releaseRenderNode();
+            }
+        }
+        if (mRingSet != null) {
+            mRingSet.cancelAnimation();
+        }
     }
 
     /**
@@ -542,27 +1018,13 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         if (mArcBounds == null || mArcBounds.isEmpty()) {
             return;
         }
-        if (mChartSeries != null) {
-            boolean labelsSupported = true;
-            for (int i = 0; i < mChartSeries.size(); i++) {
-                ChartSeries chartSeries = mChartSeries.get(i);
-                chartSeries.draw(canvas, mArcBounds);
-                // labels Unsupported if one or more series run anticlockwise
-                labelsSupported &= (!chartSeries.isVisible() || chartSeries.getSeriesItem().getSpinClockwise());
-                mMeasureViewableArea[i] = getLabelPosition(i);
-            }
-            // Draw the labels as a second pass as we want all labels to be on top of all
-            // series data
-            if (labelsSupported) {
-                for (int i = 0; i < mMeasureViewableArea.length; i++) {
-                    if (mMeasureViewableArea[i] >= 0f) {
-                        ChartSeries chartSeries = mChartSeries.get(i);
-                        chartSeries.drawLabel(canvas, mArcBounds, mMeasureViewableArea[i]);
-                        //TODO: Keep bounds of all labels and don't allow overlap
-                    }
-                }
-            }
+        if (mFrameBudgetNanos <= 0) {
+            drawSeries(canvas);
+            return;
         }
+        final long frameStart = System.nanoTime();
+        drawSeries(canvas);
+        recordFrameTime(System.nanoTime() - frameStart);
     }
 
     /**
@@ -586,6 +1048,26 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         recalcLayout();
     }
 
+    /**
+     * Pause all animations of every series, including moves, reveals, effects and color changes,
+     * and stop the clock for any events that are scheduled but not yet executed. Use
+     * {@link #resumeAll()} to continue from exactly the same point
+     */
+    public void pauseAll() {
+        mIsPausedAll = true;
+        getEventManager().pause();
+        // The effects holding the hardware layer are paused, so stop checking for their end
+        removeCallbacks(mLayerCheck);
+        if (mChartSeries != null) {
+            for (ChartSeries chartSeries : mChartSeries) {
+                chartSeries.pause();
+            }
+        }
+        if (mRingSet != null) {
+            mRingSet.pause();
+        }
+    }
+
     /**
      * Calculate the bounds based on the size of the view and the maximum width of any of the
      * ArcSeries. Must be called when:
@@ -633,6 +1115,179 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         } else if (mHorizGravity == HorizGravity.GRAVITY_HORIZONTAL_RIGHT) {
             mArcBounds.offset(offsetX, 0);
         }
+        mSeriesCoveredValid = false;
+        applyLevelOfDetail();
+    }
+
+    /**
+     * Add the draw time of a frame to the rolling window. Once the window is full the average
+     * is compared against the frame budget and the render quality is stepped down one level if
+     * over budget, or stepped back up one level if comfortably under budget
+     *
+     * @param frameNanos time taken to draw the frame in nanoseconds
+     */
+    private void recordFrameTime(long frameNanos) {
+        mFrameTotal += frameNanos - mFrameTimes[mFrameIndex];
+        mFrameTimes[mFrameIndex] = frameNanos;
+        mFrameIndex = (mFrameIndex + 1) % FRAME_WINDOW;
+        if (++mFrameCount < FRAME_WINDOW) {
+            return;
+        }
+        final long average = mFrameTotal / FRAME_WINDOW;
+        final RenderQuality[] levels = RenderQuality.values();
+        int level = mBudgetQuality.ordinal();
+        if (average > mFrameBudgetNanos && level < levels.length - 1) {
+            level++;
+        } else if (average < mFrameBudgetNanos * FRAME_RECOVER_RATIO && level > 0) {
+            level--;
+        } else {
+            return;
+        }
+        setRenderQuality(levels[level]);
+    }
+
+    /**
+     * Remove the hardware layer applied for an effect and return to the default layer type
+     */
+    private void releaseHardwareLayer() {
+        removeCallbacks(mLayerCheck);
+        if (mHardwareLayerActive) {
+            mHardwareLayerActive = false;
+            setLayerType(LAYER_TYPE_NONE, null);
+        }
+    }
+
+    /**
+     * Free the bitmap used to cache idle series. It is recreated on the next draw if required
+     */
+    private void releaseStaticLayer() {
+        if (mStaticLayer != null) {
+            mStaticLayer.recycle();
+            mStaticLayer = null;
+            mStaticCanvas = null;
+        }
+        mStaticCount = 0;
+        if (mStaticSeries != null) {
+            Arrays.fill(mStaticSeries, null);
+        }
+    }
+
+    /**
+     * Stop labels from overlapping. The labels are sorted by angle and swept once. Overlapping
+     * labels form a run, and the area occupied by the run is kept as it grows. Each label is
+     * only checked against that area, so a label moved past its neighbour can not land on an
+     * earlier label of the run. A label that overlaps is moved vertically clear of the run, in
+     * the direction of the first overlap of the run, or hidden if there is no room. For complete
+     * circles the last label is also checked against the first
+     *
+     * @param count  number of labels in {@link #mLabelSort}
+     * @param height height of the canvas
+     */
+    private void resolveLabelOverlap(int count, int height) {
+        // Angles are positive, so the float bits sort in the same order as the values
+        Arrays.sort(mLabelSort, 0, count);
+        RectF first = null;
+        int runLength = 0;
+        boolean down = false;
+        for (int i = 0; i < count; i++) {
+            final int index = (int) mLabelSort[i];
+            final RectF rect = mLabelRects[index];
+            boolean visible = true;
+            if (runLength > 0 && RectF.intersects(mLabelRun, rect)) {
+                if (runLength == 1) {
+                    down = rect.centerY() >= mLabelRun.centerY();
+                }
+                visible = nudgeLabel(rect, mLabelRun, down, height);
+            } else {
+                runLength = 0;
+            }
+            if (visible && i == count - 1 && first != null && mTotalAngle == 360 &&
+                    RectF.intersects(first, rect)) {
+                visible = nudgeLabel(rect, first, rect.centerY() >= first.centerY(), height) &&
+                        (runLength == 0 || !RectF.intersects(mLabelRun, rect));
+            }
+            if (!visible) {
+                mLabelRects[index] = null;
+                continue;
+            }
+            if (first == null) {
+                first = rect;
+            }
+            if (runLength == 0) {
+                mLabelRun.set(rect);
+            } else {
+                mLabelRun.union(rect);
+            }
+            runLength++;
+        }
+    }
+
+    /**
+     * Resume all animations and scheduled events previously paused with {@link #pauseAll()}
+     */
+    public void resumeAll() {
+        if (!mIsPausedAll) {
+            return;
+        }
+        mIsPausedAll = false;
+        if (mChartSeries != null) {
+            for (ChartSeries chartSeries : mChartSeries) {
+                chartSeries.resume();
+            }
+        }
+        if (mRingSet != null) {
+            mRingSet.resume();
+        }
+        if (mHardwareLayerActive) {
+            postDelayed(mLayerCheck, LAYER_CHECK_INTERVAL);
+        }
+        getEventManager().resume();
+    }
+
+    /**
+     * When enabled the view switches to a hardware layer while {@link DecoDrawEffect} effects
+     * are played and switches back once they end, and linked views are given a hardware layer
+     * while they fade. Views that have a layer type set explicitly, such as after calling
+     * {@link #disableHardwareAccelerationForDecoView()}, are never changed. Enabled by default
+     *
+     * @param enabled true to manage hardware layers automatically
+     */
+    public void setAutoHardwareLayer(boolean enabled) {
+        mAutoHardwareLayer = enabled;
+        getEventManager().setHardwareLayersEnabled(enabled);
+        if (!enabled) {
+            releaseHardwareLayer();
+        }
+    }
+
+    /**
+     * Draw consecutive series that share the same color, width and cap in a single draw call.
+     * Series drawn with a gradient, shadow, edge detail or effect are always drawn on their own.
+     * Enabled by default
+     *
+     * @param enabled false to draw every series with its own draw calls
+     */
+    public void setBatchingEnabled(boolean enabled) {
+        mBatchingEnabled = enabled;
+        invalidate();
+    }
+
+    /**
+     * Set the time allowed for drawing one frame of this view. When the average draw time over
+     * the last frames exceeds the budget the quality is reduced step by step, first dropping
+     * shadows, then edge details, then gradients, then anti-aliasing and finally skipping frames
+     * of effect animations. Full quality is restored step by step once frames are back under
+     * budget.
+     * <p/>
+     * A budget of 4ms is a reasonable starting point on low end devices
+     *
+     * @param budgetMs maximum draw time in milliseconds, 0 to disable the watchdog
+     */
+    public void setFrameBudget(float budgetMs) {
+        mFrameBudgetNanos = (long) (Math.max(0f, budgetMs) * 1000000L);
+        if (mFrameBudgetNanos == 0) {
+            setRenderQuality(RenderQuality.QUALITY_FULL);
+        }
     }
 
     /**
@@ -644,6 +1299,128 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         mHorizGravity = horizGravity;
     }
 
+    /**
+     * Hide the labels of all series when the view is small. Labels are not drawn while the
+     * smaller side of the arc bounds is less than the given size
+     *
+     * @param size Size in pixels, 0 to always draw labels
+     */
+    public void setLabelMinSize(float size) {
+        mLabelMinSize = size;
+        recalcLayout();
+        invalidate();
+    }
+
+    /**
+     * Reduce the render quality of the view when it is small, for example an avatar in a list
+     * rather than a full screen gauge. While the smaller side of the arc bounds is less than the
+     * given size the series are drawn at no better than the given quality. Several levels can be
+     * set, each with its own size, such as:
+     * <pre>
+     * decoView.setLevelOfDetail(RenderQuality.QUALITY_NO_EDGE_DETAIL, 200 * density);
+     * decoView.setLevelOfDetail(RenderQuality.QUALITY_NO_GRADIENT, 64 * density);
+     * </pre>
+     * The level is only selected when the layout is calculated. It is combined with any
+     * reduction made to meet the frame budget, see {@link #setFrameBudget(float)}
+     *
+     * @param renderQuality Quality to apply to small views
+     * @param size          Size in pixels below which the quality is applied, 0 to remove
+     */
+    public void setLevelOfDetail(@NonNull RenderQuality renderQuality, float size) {
+        mDetailSizes[renderQuality.ordinal()] = Math.max(0f, size);
+        recalcLayout();
+    }
+
+    /**
+     * Apply a render quality to every series and restart the measurement of draw times. The
+     * quality is not raised above the quality required by the size of the view
+     *
+     * @param renderQuality quality chosen by the frame budget
+     */
+    private void setRenderQuality(@NonNull RenderQuality renderQuality) {
+        mFrameCount = 0;
+        mFrameIndex = 0;
+        mFrameTotal = 0;
+        Arrays.fill(mFrameTimes, 0);
+        mBudgetQuality = renderQuality;
+        if (renderQuality.ordinal() < mQualityFloor.ordinal()) {
+            renderQuality = mQualityFloor;
+        }
+        if (mRenderQuality == renderQuality) {
+            return;
+        }
+        mRenderQuality = renderQuality;
+        if (mChartSeries != null) {
+            for (ChartSeries chartSeries : mChartSeries) {
+                chartSeries.setRenderQuality(renderQuality);
+            }
+        }
+        if (mRingSet != null) {
+            mRingSet.setRenderQuality(renderQuality);
+        }
+        invalidate();
+    }
+
+    /**
+     * On API 29+ with hardware acceleration each series records its drawing into its own
+     * RenderNode, which is only recorded again when that series changes. Enabled by default,
+     * this can be turned off to always draw the series directly
+     *
+     * @param enabled true to draw series through RenderNodes when supported
+     */
+    public void setRenderNodesEnabled(boolean enabled) {
+        mRenderNodesEnabled = enabled;
+        if (!enabled && mChartSeries != null) {
+            for (ChartSeries chartSeries : mChartSeries) {
+                chartSeries.releaseRenderNode();
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Display a set of concentric rings behind the series of this view. A RingSet suits a large
+     * number of thin rings, such as a leaderboard, which would be expensive as one
+     * {@link ChartSeries} each
+     *
+     * @param ringSet rings to display, or null to remove
+     */
+    public void setRingSet(@Nullable RingSet ringSet) {
+        if (mRingSet != null) {
+            mRingSet.cancelAnimation();
+            mRingSet.setListener(null);
+        }
+        mRingSet = ringSet;
+        if (mRingSet != null) {
+            mRingSet.setListener(new RingSet.RingSetListener() {
+                @Override
+                public void onRingSetUpdate() {
+                    invalidate();
+                }
+            });
+            mRingSet.setRenderQuality(mRenderQuality);
+        }
+        recalcLayout();
+        invalidate();
+    }
+
+    /**
+     * Cache the series that are not animating into a bitmap layer. Background tracks and
+     * completed series are then drawn with a single bitmap draw on each frame and only the
+     * animating series are redrawn on top. The cache costs one ARGB bitmap the size of the view.
+     * It is not used while series are drawn through RenderNodes, see
+     * {@link #setRenderNodesEnabled(boolean)}
+     *
+     * @param enabled true to cache idle series
+     */
+    public void setStaticLayerEnabled(boolean enabled) {
+        mStaticLayerEnabled = enabled;
+        if (!enabled) {
+            releaseStaticLayer();
+        }
+        invalidate();
+    }
+
     /**
      * Set the Vertical gravity of the DecoView
      *
@@ -653,6 +1430,115 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         mVertGravity = vertGravity;
     }
 
+    /**
+     * Stack one line series on the end of another, so the two series form consecutive segments
+     * of a single bar. Any number of series can be chained this way, each segment starting where
+     * the previous one currently ends
+     *
+     * @param baseIndex   index of the series the segment starts from
+     * @param seriesIndex index of the series to stack, must be added after the base series
+     */
+    public void stackSeries(int baseIndex, int seriesIndex) {
+        ChartSeries base = getChartSeries(baseIndex);
+        ChartSeries series = getChartSeries(seriesIndex);
+        if (!(base instanceof LineSeries) || !(series instanceof LineSeries) ||
+                base.getSeriesItem().getChartStyle() != series.getSeriesItem().getChartStyle()) {
+            throw new IllegalArgumentException(
+                    "Invalid index: Series must both be line series of the same style (Base: " + baseIndex +
+                            " Series: " + seriesIndex + ")");
+        }
+        if (baseIndex >= seriesIndex) {
+            throw new IllegalArgumentException("Base series must be added before the series stacked on it");
+        }
+        ((LineSeries) series).setStackBase((LineSeries) base);
+        invalidate();
+    }
+
+    /**
+     * Calculate the position of the label of every series. Only the series drawn after a series
+     * can cover it, so a single pass from the last series to the first tracks the largest
+     * position drawn on top of each series. The positions are only recalculated when the
+     * position or visibility of a series has changed since the last call
+     */
+    private void updateLabelPositions() {
+        boolean changed = !mLabelPositionsValid;
+        for (int i = 0; i < mChartSeries.size(); i++) {
+            ChartSeries chartSeries = mChartSeries.get(i);
+            float positionPercent = chartSeries.getPositionPercent();
+            boolean visible = chartSeries.isVisible();
+            if (positionPercent != mLabelSeriesPercent[i] || visible != mLabelSeriesVisible[i]) {
+                mLabelSeriesPercent[i] = positionPercent;
+                mLabelSeriesVisible[i] = visible;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        float max = 0.0f;
+        for (int i = mChartSeries.size() - 1; i >= 0; i--) {
+            mMeasureViewableArea[i] = getLabelPosition(mLabelSeriesPercent[i], max);
+            if (mLabelSeriesVisible[i] && max < mLabelSeriesPercent[i]) {
+                max = mLabelSeriesPercent[i];
+            }
+        }
+        mLabelPositionsValid = true;
+    }
+
+    /**
+     * Find the last later series with the same inset for each series. Insets can not change
+     * once a series is added, so this only runs when series are added
+     */
+    private void updateSeriesCoverCandidates() {
+        final int count = mChartSeries.size();
+        mSeriesCoverCandidate = new int[count];
+        for (int i = 0; i < count; i++) {
+            final PointF inset = mChartSeries.get(i).getSeriesItem().getInset();
+            mSeriesCoverCandidate[i] = -1;
+            for (int j = count - 1; j > i; j--) {
+                final PointF candidateInset = mChartSeries.get(j).getSeriesItem().getInset();
+                if (inset.x == candidateInset.x && inset.y == candidateInset.y) {
+                    mSeriesCoverCandidate[i] = j;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Determine which series are completely hidden by a series drawn after them. The result is
+     * kept while every series is idle and its draw version is unchanged. On other frames each
+     * series is only checked against the last later series with the same inset, so the check is
+     * linear in the number of series. Series cached in the static layer are not culled, as the
+     * series covering them may change
+     */
+    private void updateSeriesCovered() {
+        final int count = mChartSeries.size();
+        int version = count;
+        boolean idle = true;
+        for (int i = 0; i < count; i++) {
+            final ChartSeries chartSeries = mChartSeries.get(i);
+            version = 31 * version + chartSeries.getDrawVersion();
+            idle &= chartSeries.isIdle();
+        }
+        if (mSeriesCoveredValid && version == mSeriesCoveredVersion && mSeriesCovered.length == count) {
+            return;
+        }
+        if (mSeriesCovered.length != count) {
+            mSeriesCovered = new boolean[count];
+            updateSeriesCoverCandidates();
+        }
+        for (int i = 0; i < count; i++) {
+            final int candidate = mSeriesCoverCandidate[i];
+            final ChartSeries chartSeries = mChartSeries.get(i);
+            mSeriesCovered[i] = candidate >= 0 && chartSeries.isVisible() &&
+                    chartSeries.isCoveredBy(mChartSeries.get(candidate));
+        }
+        mSeriesCoveredVersion = version;
+        // Positions change on every frame of an animation without a change of draw version
+        mSeriesCoveredValid = idle;
+    }
+
     /**
      * Horizontal positioning values
      */
@@ -660,6 +1546,19 @@ public class DecoView extends View implements DecoEventManager.ArcEventManagerLi
         GRAVITY_HORIZONTAL_LEFT, GRAVITY_HORIZONTAL_CENTER, GRAVITY_HORIZONTAL_RIGHT, GRAVITY_HORIZONTAL_FILL
     }
 
+    /**
+     * Levels of render quality, from full quality to the cheapest rendering. Each level also
+     * includes the reductions of all levels before it
+     */
+    public enum RenderQuality {
+        QUALITY_FULL, /* All features drawn */
+        QUALITY_NO_SHADOW, /* Shadow layers are not drawn */
+        QUALITY_NO_EDGE_DETAIL, /* EdgeDetail decorations are not drawn */
+        QUALITY_NO_GRADIENT, /* Gradients are replaced by the primary color of the series */
+        QUALITY_NO_ANTI_ALIAS, /* Anti-aliasing is turned off */
+        QUALITY_SKIP_EFFECT_FRAMES /* Effect animations are redrawn on every second frame only */
+    }
+
     /**
      * Vertical positioning values
      */
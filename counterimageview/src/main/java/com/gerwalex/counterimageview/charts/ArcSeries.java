@@ -17,13 +17,25 @@ package com.gerwalex.counterimageview.charts;
 
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PointF;
 import android.graphics.RectF;
-import android.graphics.SweepGradient;
+import android.graphics.Shader;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.gerwalex.counterimageview.events.DecoEvent;
 
 abstract public class ArcSeries extends ChartSeries {
+    /**
+     * Bounds a filled shadow is drawn in, the bounds of the series grown by the shadow extent
+     */
+    private final RectF mShadowBounds = new RectF();
+    /**
+     * Paint drawing the pre-rendered shadow in the shadow color
+     */
+    private final Paint mShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
     /**
      * Angle that the arc starts
      */
@@ -32,6 +44,19 @@ abstract public class ArcSeries extends ChartSeries {
      * Sweep angle starts at {@link #mArcAngleStart}
      */
     protected float mArcAngleSweep;
+    /**
+     * Series drawn on top of this series when this series is the background track of it. Only
+     * the part of the track not covered by that series is drawn
+     */
+    private ArcSeries mCoverSeries;
+    /**
+     * Pre-rendered shadow of the complete series, or null if no shadow is drawn
+     */
+    private Shader mShadowShader;
+    /**
+     * Version of the series item when {@link #mShadowShader} was fetched
+     */
+    private int mShadowVersion;
 
     ArcSeries(@NonNull SeriesItem seriesItem, int totalAngle, int rotateAngle) {
         super(seriesItem, totalAngle, rotateAngle);
@@ -42,21 +67,18 @@ abstract public class ArcSeries extends ChartSeries {
      */
     protected void applyGradientToPaint() {
         if (Color.alpha(mSeriesItem.getSecondaryColor()) != 0) {
-            SweepGradient gradient;
+            Shader gradient;
             if (mAngleSweep < 360) {
                 /**
                  * When we have less than a full circle we change the style of gradient so that
                  * the two colors start at the same point. The two provided colors meet rather than
-                 * a fade the complete circumference. A matrix is rotated so the meeting of the
+                 * a fade the complete circumference. The gradient is rotated so the meeting of the
                  * two colors occurs in the middle of the gap when the part circle is not drawn
                  */
                 final int[] colors = {mSeriesItem.getColor(), mSeriesItem.getSecondaryColor()};
                 final float[] positions = {0, 1};
-                gradient = new SweepGradient(mBounds.centerX(), mBounds.centerY(), colors, positions);
-                Matrix gradientRotationMatrix = new Matrix();
-                gradientRotationMatrix
-                        .preRotate(mAngleStart - ((360f - mAngleSweep) / 2), mBounds.centerX(), mBounds.centerY());
-                gradient.setLocalMatrix(gradientRotationMatrix);
+                gradient = ShaderCache.getSweepGradient(mBounds.centerX(), mBounds.centerY(), colors, positions,
+                        mAngleStart - ((360f - mAngleSweep) / 2));
             } else {
                 /**
                  * Drawing a gradient around the complete circumference of the circle. This
@@ -65,12 +87,46 @@ abstract public class ArcSeries extends ChartSeries {
                 final int[] colors =
                         {mSeriesItem.getSecondaryColor(), mSeriesItem.getColor(), mSeriesItem.getSecondaryColor()};
                 final float[] positions = {0, 0.5f * (mAngleSweep / 360f), 1};
-                gradient = new SweepGradient(mBounds.centerX(), mBounds.centerY(), colors, positions);
+                gradient = ShaderCache.getSweepGradient(mBounds.centerX(), mBounds.centerY(), colors, positions, 0);
             }
             mPaint.setShader(gradient);
         }
     }
 
+    /**
+     * The shadow is not drawn by the paint, as a shadow layer blurs the arc on every draw.
+     * Instead the shadow of the complete series is taken from the {@link ShadowCache} and the
+     * part matching the current arc is drawn beneath it
+     */
+    @Override
+    protected void applyShadow() {
+        mShadowVersion = mSeriesItem.getVersion();
+        if (!isShadowEnabled()) {
+            mShadowShader = null;
+            return;
+        }
+        final boolean fill = mSeriesItem.getChartStyle() != SeriesItem.ChartStyle.STYLE_DONUT;
+        final float extent = mSeriesItem.getShadowSize() * ShadowCache.EXTENT;
+        mShadowShader = ShadowCache.getShadow(mBoundsInset, mSeriesItem.getLineWidth(), mSeriesItem.getShadowSize(),
+                fill);
+        mShadowPaint.setShader(mShadowShader);
+        mShadowPaint.setStyle(fill ? Paint.Style.FILL : Paint.Style.STROKE);
+        mShadowBounds.set(mBoundsInset);
+        mShadowBounds.inset(-extent, -extent);
+    }
+
+    /**
+     * Calculate the sweep of the arc for the current position of the animation
+     *
+     * @return sweep in degrees, negative for anti-clockwise series
+     */
+    protected float calcArcSweep() {
+        final float endPos =
+                calcCurrentPosition(mPositionStart, mPositionEnd, mSeriesItem.getMinValue(), mSeriesItem.getMaxValue(),
+                        mPercentComplete);
+        return adjustSweepDirection(verifyMinSweepAngle(endPos * mAngleSweep));
+    }
+
     /**
      * Draw this arc in the current position calculated by the ValueAnimator.
      *
@@ -83,15 +139,15 @@ abstract public class ArcSeries extends ChartSeries {
         if (super.draw(canvas, bounds)) {
             return true;
         }
-        final float endPos =
-                calcCurrentPosition(mPositionStart, mPositionEnd, mSeriesItem.getMinValue(), mSeriesItem.getMaxValue(),
-                        mPercentComplete);
-        mArcAngleSweep = adjustSweepDirection(verifyMinSweepAngle(endPos * mAngleSweep));
+        mArcAngleSweep = calcArcSweep();
         mArcAngleStart = mAngleStart;
         if (mSeriesItem.getDrawAsPoint()) {
             mArcAngleStart = adjustDrawPointAngle(mArcAngleSweep);
             mArcAngleSweep = adjustSweepDirection(getMinSweepAngle());
         } else {
+            if (mCoverSeries != null) {
+                excludeCoveredSweep();
+            }
             return mArcAngleSweep == 0;
         }
         return false;
@@ -103,4 +159,166 @@ abstract public class ArcSeries extends ChartSeries {
      * @param canvas Canvas to draw onto
      */
     abstract void drawArc(Canvas canvas);
-}
\ No newline at end of file
+
+    /**
+     * Draw the arc with the current paint. While a gradient series is changing color the arc is
+     * drawn with the previous gradient and the new gradient drawn over it with increasing alpha,
+     * which blends the two without creating a shader for each frame. This is only exact for
+     * opaque gradients, so translucent gradients are not cross faded, see {@link #mShaderFrom}.
+     * The second draw is skipped at either end of the blend
+     *
+     * @param canvas    Canvas to draw onto
+     * @param useCenter true to draw a wedge from the center
+     */
+    protected void drawArcShaded(@NonNull Canvas canvas, boolean useCenter) {
+        drawShadow(canvas, useCenter);
+        // Interpolators such as anticipate or overshoot take the progress outside 0..1
+        final float fraction = Math.min(Math.max(mPercentComplete, 0f), 1.0f);
+        final int alpha = mPaint.getAlpha();
+        final int alphaTo = (int) (alpha * fraction);
+        if (mShaderFrom == null || alphaTo >= alpha) {
+            canvas.drawArc(mBoundsInset, mArcAngleStart, mArcAngleSweep, useCenter, mPaint);
+            return;
+        }
+        final Shader shaderTo = mPaint.getShader();
+        mPaint.setShader(mShaderFrom);
+        canvas.drawArc(mBoundsInset, mArcAngleStart, mArcAngleSweep, useCenter, mPaint);
+        mPaint.setShader(shaderTo);
+        if (alphaTo > 0) {
+            mPaint.setAlpha(alphaTo);
+            canvas.drawArc(mBoundsInset, mArcAngleStart, mArcAngleSweep, useCenter, mPaint);
+            mPaint.setAlpha(alpha);
+        }
+    }
+
+    /**
+     * Draw the part of the pre-rendered shadow beneath the current arc. A wedge is drawn for a
+     * filled series, otherwise an arc wide enough to hold the blur on both sides of the line.
+     * Nothing is drawn if the series has no shadow
+     *
+     * @param canvas    Canvas to draw onto
+     * @param useCenter true to draw a wedge from the center
+     */
+    protected void drawShadow(@NonNull Canvas canvas, boolean useCenter) {
+        if (mShadowVersion != mSeriesItem.getVersion()) {
+            // The shadow size or line width may have changed since the mask was fetched
+            applyShadow();
+        }
+        if (mShadowShader == null) {
+            return;
+        }
+        final int shadowColor = mSeriesItem.getShadowColor();
+        mShadowPaint.setColor(shadowColor);
+        mShadowPaint.setAlpha(Color.alpha(shadowColor) * mPaint.getAlpha() / 255);
+        if (useCenter) {
+            canvas.drawArc(mShadowBounds, mArcAngleStart, mArcAngleSweep, true, mShadowPaint);
+            return;
+        }
+        final float extent = mSeriesItem.getShadowSize() * ShadowCache.EXTENT;
+        mShadowPaint.setStrokeWidth(mPaint.getStrokeWidth() + extent * 2);
+        mShadowPaint.setStrokeCap(mPaint.getStrokeCap());
+        canvas.drawArc(mBoundsInset, mArcAngleStart, mArcAngleSweep, false, mShadowPaint);
+    }
+
+    /**
+     * Remove the part of the arc covered by {@link #mCoverSeries}, so the covered part of a
+     * background track is not drawn twice. The remaining track starts about a pixel before the
+     * end of the cover, so the anti-aliased edges of the two arcs do not leave a seam
+     */
+    private void excludeCoveredSweep() {
+        final float covered = mCoverSeries.getCoverSweep(this);
+        if (covered == 0) {
+            return;
+        }
+        if (Math.abs(covered) >= Math.abs(mArcAngleSweep)) {
+            mArcAngleSweep = 0;
+            return;
+        }
+        final float radius = Math.min(mBoundsInset.width(), mBoundsInset.height()) / 2f;
+        final float overlap = radius > 1f ? (float) Math.toDegrees(1f / radius) : 0f;
+        final float excluded = covered > 0 ? Math.max(covered - overlap, 0f) : Math.min(covered + overlap, 0f);
+        mArcAngleStart += excluded;
+        mArcAngleSweep -= excluded;
+    }
+
+    /**
+     * Determine how much of a track drawn beneath this series is hidden by this series in the
+     * current frame. The track is only considered hidden where this series is opaque and drawn
+     * over exactly the same path with at least the same width. The colors of a segmented series
+     * are not checked, so it never hides a track
+     *
+     * @param track Series drawn beneath this series
+     * @return sweep of the track hidden by this series, or 0 if it can not be determined
+     */
+    private float getCoverSweep(@NonNull ArcSeries track) {
+        if (!isVisible() || mDrawMode != DecoEvent.EventType.EVENT_MOVE || mShaderFrom != null ||
+                mSeriesItem.getDrawAsPoint() || mPaint.getAlpha() != 255 ||
+                mSeriesItem.getSegmentCount() > 0) {
+            return 0;
+        }
+        final int secondaryAlpha = Color.alpha(mSeriesItem.getSecondaryColor());
+        if (secondaryAlpha != 0 && secondaryAlpha != 255) {
+            return 0;
+        }
+        final SeriesItem trackItem = track.mSeriesItem;
+        if (mAngleStart != track.mAngleStart || mAngleSweep != track.mAngleSweep ||
+                mSeriesItem.getSpinClockwise() != trackItem.getSpinClockwise() ||
+                mSeriesItem.getChartStyle() != trackItem.getChartStyle() ||
+                mSeriesItem.getLineWidth() < track.mPaint.getStrokeWidth()) {
+            return 0;
+        }
+        final PointF inset = mSeriesItem.getInset();
+        final PointF trackInset = trackItem.getInset();
+        if (inset.x != trackInset.x || inset.y != trackInset.y) {
+            return 0;
+        }
+        return calcArcSweep();
+    }
+
+    /**
+     * Includes the draw version of the covering series, as it changes how the track is drawn
+     */
+    @Override
+    public int getDrawVersion() {
+        return super.getDrawVersion() + (mCoverSeries != null ? 31 * mCoverSeries.getDrawVersion() : 0);
+    }
+
+    /**
+     * This series is covered when the other series is opaque, overlays exactly the same path
+     * with at least the same width and its sweep reaches at least as far as this series
+     */
+    @Override
+    public boolean isCoveredBy(@NonNull ChartSeries series) {
+        if (!(series instanceof ArcSeries) || mDrawMode != DecoEvent.EventType.EVENT_MOVE ||
+                mSeriesItem.getDrawAsPoint() || mSeriesItem.getShadowSize() > 0) {
+            return false;
+        }
+        final ArcSeries cover = (ArcSeries) series;
+        final float covered = cover.getCoverSweep(this);
+        if (covered == 0 || Math.abs(covered) < Math.abs(calcArcSweep())) {
+            return false;
+        }
+        // A round cap extends past the end of the arc, so it is only hidden by another round cap
+        return !mSeriesItem.getRoundCap() || cover.mSeriesItem.getRoundCap();
+    }
+
+    /**
+     * A track is only idle while the series covering it is also idle
+     */
+    @Override
+    public boolean isIdle() {
+        return super.isIdle() && (mCoverSeries == null || mCoverSeries.isIdle());
+    }
+
+    /**
+     * Link this series as the background track of another series drawn after it. Only the
+     * part of this series not covered by that series is then drawn, rather than filling the
+     * covered part twice. This only takes effect while the other series is opaque and has the
+     * same style, angles and inset as this series and is at least as wide
+     *
+     * @param coverSeries Series drawn on top of this series, or null to draw the full track
+     */
+    public void setCoverSeries(@Nullable ArcSeries coverSeries) {
+        mCoverSeries = coverSeries;
+    }
+}
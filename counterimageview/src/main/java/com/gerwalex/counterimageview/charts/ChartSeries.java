@@ -18,12 +18,20 @@ package com.gerwalex.counterimageview.charts;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RecordingCanvas;
 import android.graphics.RectF;
+import android.graphics.RenderNode;
+import android.graphics.Shader;
+import android.os.Build;
 import android.util.Log;
+import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
 import com.gerwalex.counterimageview.DecoView;
 import com.gerwalex.counterimageview.events.DecoEvent;
@@ -44,6 +52,15 @@ abstract public class ChartSeries {
     static final private float MIN_SWEEP_ANGLE_FLAT = 0.1f;
     static final private float MIN_SWEEP_ANGLE_NONE = 0f;
     static final private float MIN_SWEEP_ANGLE_PIE = MIN_SWEEP_ANGLE_NONE;
+    /**
+     * Interpolator used when the event does not supply one. It holds no state so can be shared
+     */
+    static final private Interpolator INTERPOLATOR_LINEAR = new LinearInterpolator();
+    /**
+     * Interpolator used for a move when neither the event nor the series item supply one. This
+     * is the default a new ValueAnimator would use
+     */
+    static final private Interpolator INTERPOLATOR_MOVE = new AccelerateDecelerateInterpolator();
 
     @SuppressWarnings("unused")
     protected final String TAG = getClass().getSimpleName();
@@ -62,11 +79,41 @@ abstract public class ChartSeries {
     /**
      * Drawing bounds for arc
      */
-    protected RectF mBounds;
+    protected final RectF mBounds = new RectF();
     /**
      * Drawing bounds for arc after inset applied
      */
-    protected RectF mBoundsInset;
+    protected final RectF mBoundsInset = new RectF();
+    /**
+     * Paint used for drawing arc. Reset in place rather than recreated
+     */
+    protected final Paint mPaint = new Paint();
+    /**
+     * Listener of {@link #mValueAnimator}. Created once and shared by every animation of the series
+     */
+    private final AnimatorListenerAdapter mAnimatorListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (mIsPaused) {
+                return;
+            }
+            endAnimation();
+        }
+    };
+    /**
+     * Update listener of {@link #mValueAnimator}. Created once and shared by every animation of
+     * the series
+     */
+    private final ValueAnimator.AnimatorUpdateListener mAnimatorUpdateListener =
+            new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator valueAnimator) {
+                    if (mIsPaused) {
+                        return;
+                    }
+                    updateAnimation((Float) valueAnimator.getAnimatedValue());
+                }
+            };
     /**
      * Current Mode of drawing
      */
@@ -76,9 +123,11 @@ abstract public class ChartSeries {
      */
     protected DecoDrawEffect mEffect;
     /**
-     * Paint used for drawing arc
+     * Gradient shader in use before the current color change. While the color animates the
+     * series is drawn with this shader and cross faded into the shader of the new color. Only
+     * set when both gradients are opaque
      */
-    protected Paint mPaint;
+    protected Shader mShaderFrom;
     /**
      * 0..1.0f The percentage of the animation complete
      */
@@ -89,17 +138,63 @@ abstract public class ChartSeries {
      * Positions for current animation
      */
     protected float mPositionStart;
+    /**
+     * Type of the animation currently run by {@link #mValueAnimator}
+     */
+    private AnimationType mAnimationType = AnimationType.MOVE;
+    /**
+     * Have {@link #mBounds} been set since the last reset. Once cleared the gradient is
+     * rebuilt on the next draw
+     */
+    private boolean mBoundsValid;
     private ColorAnimate mColorAnimate;
+    /**
+     * Incremented whenever the state used to draw the series changes. Allows a
+     * {@link DecoView} to determine if a cached drawing of this series is still valid
+     */
+    private int mDrawVersion;
+    /**
+     * Number of effect animation updates received. Used to skip alternate effect frames when
+     * running at {@link DecoView.RenderQuality#QUALITY_SKIP_EFFECT_FRAMES}
+     */
+    private int mEffectFrame;
+    /**
+     * Effect kept from the previous effect event so it can be reused by the next one
+     */
+    private DecoDrawEffect mEffectRecycled;
     /**
      * Current event being processed. Kept for the case where we pause and resume the event
      */
     private DecoEvent mEventCurrent;
     /**
-     * Has the current move animation been paused
+     * Has the current animation been paused
      */
     private boolean mIsPaused;
     /**
-     * ValueAnimator to calculate arc drawing position during animation
+     * Elapsed play time of the animation at the point it was paused. Used to resume the same
+     * ValueAnimator from exactly the same position
+     */
+    private long mPausedPlayTime;
+    /**
+     * Display list holding the last drawing of this series. Only used on API 29+ with a
+     * hardware accelerated canvas, see {@link #drawRenderNode(Canvas, RectF, int, int)}
+     */
+    private RenderNode mRenderNode;
+    /**
+     * Draw version of the series at the time {@link #mRenderNode} was recorded
+     */
+    private int mRenderNodeVersion;
+    /**
+     * Quality the series is to be rendered at
+     */
+    private DecoView.RenderQuality mRenderQuality = DecoView.RenderQuality.QUALITY_FULL;
+    /**
+     * Is the running hide or show animation showing the series
+     */
+    private boolean mShowArc;
+    /**
+     * ValueAnimator to calculate arc drawing position during animation. Created on first use and
+     * reused, always animating from 0 to 1.0f, see {@link #startAnimator(AnimationType, long, Interpolator)}
      */
     private ValueAnimator mValueAnimator;
     /**
@@ -148,12 +243,46 @@ abstract public class ChartSeries {
         return mSeriesItem.getSpinClockwise() ? sweep : -sweep;
     }
 
+    /**
+     * Add the geometry of the series to a batch. Only called after
+     * {@link #prepareBatch(Canvas, RectF)} has returned true
+     *
+     * @param path Path collecting the geometry of all series in the batch
+     */
+    public void appendToBatch(@NonNull Path path) {
+    }
+
     /**
      * Build a gradient if required. This will be executed every time the bounds changed. Subclasses
      * must implement this method to create a gradient that will work with the given shape
      */
     abstract protected void applyGradientToPaint();
 
+    /**
+     * Apply the current render quality to the paint. Shadows, gradients and anti-aliasing are
+     * dropped when the quality has been reduced
+     */
+    private void applyRenderQuality() {
+        mPaint.setAntiAlias(mRenderQuality.ordinal() < DecoView.RenderQuality.QUALITY_NO_ANTI_ALIAS.ordinal());
+        if (!isGradientEnabled()) {
+            mPaint.setShader(null);
+        }
+        // The gradient and shadow are built again for the new quality on the next draw
+        mBoundsValid = false;
+    }
+
+    /**
+     * Apply the shadow for the current bounds and render quality. By default the shadow is
+     * drawn by the paint as a shadow layer. Subclasses may draw the shadow themselves instead
+     */
+    protected void applyShadow() {
+        if (isShadowEnabled()) {
+            mPaint.setShadowLayer(mSeriesItem.getShadowSize(), 0, 0, mSeriesItem.getShadowColor());
+        } else {
+            mPaint.clearShadowLayer();
+        }
+    }
+
     /**
      * Calculates the current position of an series based on the progress of the animation
      * being executed
@@ -179,6 +308,23 @@ abstract public class ChartSeries {
         return (end / max) * (start + (percent * (end - start))) / end;
     }
 
+    /**
+     * Can the other series be drawn in the same batch as this series. This is the case when
+     * both series are drawn with the same opaque paint state and shader. Translucent series are not
+     * combined, as overlapping arcs drawn in one call would not blend as they do when drawn
+     * separately
+     *
+     * @param other Series prepared for batching
+     * @return true if the series can share one draw call
+     */
+    public boolean canBatchWith(@NonNull ChartSeries other) {
+        final Paint paint = other.mPaint;
+        return Color.alpha(mPaint.getColor()) == 255 && mPaint.getColor() == paint.getColor() &&
+                mPaint.getStrokeWidth() == paint.getStrokeWidth() &&
+                mPaint.getStrokeCap() == paint.getStrokeCap() && mPaint.getStyle() == paint.getStyle() &&
+                mPaint.isAntiAlias() == paint.isAntiAlias() && mPaint.getShader() == paint.getShader();
+    }
+
     /**
      * If we are currently animating we stop it first before starting a new
      * animation from the current position
@@ -187,11 +333,18 @@ abstract public class ChartSeries {
         if (mValueAnimator != null) {
             mValueAnimator.cancel();
         }
+        if (mIsPaused && mEffect != null) {
+            // A paused animator has already ended, so release the effect here as it will not end again
+            releaseEffect();
+        }
+        mIsPaused = false;
         mEventCurrent = null;
+        mDrawVersion++;
         if (mColorAnimate != null) {
             mPaint.setColor(mSeriesItem.getColor());
             mColorAnimate = null;
         }
+        mShaderFrom = null;
     }
 
     /**
@@ -209,8 +362,9 @@ abstract public class ChartSeries {
             throw new IllegalArgumentException("Drawing bounds can not be null or empty");
         }
         processBoundsChange(bounds);
-        if (mDrawMode == DecoEvent.EventType.EVENT_EFFECT) {
-            // Delegate the drawing to the ArcEffect as required
+        if (mDrawMode == DecoEvent.EventType.EVENT_EFFECT && (mEffect == null || !mEffect.isOverlay())) {
+            // Delegate the drawing to the ArcEffect as required. Overlay effects are drawn over
+            // the series by drawOverlayEffect
             if (mEffect != null) {
                 mEffect.draw(canvas, mBoundsInset, mPercentComplete, mAngleStart, mAngleSweep);
             }
@@ -222,7 +376,51 @@ abstract public class ChartSeries {
         } else if (mPaint.getColor() != getSeriesItem().getColor()) {
             mPaint.setColor(getSeriesItem().getColor());
         }
-        return false;
+        // Nothing to draw with a fully transparent paint
+        return mPaint.getAlpha() == 0;
+    }
+
+    /**
+     * Draw the geometry collected for a batch with the paint of this series
+     *
+     * @param canvas Canvas to draw onto
+     * @param path   Geometry of all series in the batch
+     */
+    public void drawBatch(@NonNull Canvas canvas, @NonNull Path path) {
+        canvas.drawPath(path, mPaint);
+    }
+
+    /**
+     * Draw this series through its own {@link RenderNode}. The display list is only recorded
+     * again if the series is animating or its draw version has changed since it was last
+     * recorded, so a series that is not changing costs a single drawRenderNode call
+     *
+     * @param canvas Hardware accelerated canvas used to draw
+     * @param bounds Bounds to be used to draw the arc
+     * @param width  Width of the view
+     * @param height Height of the view
+     */
+    @RequiresApi(api = Build.VERSION_CODES.Q)
+    public void drawRenderNode(Canvas canvas, RectF bounds, int width, int height) {
+        if (mRenderNode == null) {
+            mRenderNode = new RenderNode(TAG);
+        }
+        if (bounds == null || bounds.isEmpty()) {
+            throw new IllegalArgumentException("Drawing bounds can not be null or empty");
+        }
+        // Apply any change of bounds first so it is reflected in the draw version
+        processBoundsChange(bounds);
+        final boolean resized = mRenderNode.setPosition(0, 0, width, height);
+        if (resized || !isIdle() || !mRenderNode.hasDisplayList() || mRenderNodeVersion != getDrawVersion()) {
+            RecordingCanvas recordingCanvas = mRenderNode.beginRecording(width, height);
+            try {
+                draw(recordingCanvas, bounds);
+            } finally {
+                mRenderNode.endRecording();
+            }
+            mRenderNodeVersion = getDrawVersion();
+        }
+        canvas.drawRenderNode(mRenderNode);
     }
 
     @SuppressWarnings("UnusedReturnValue")
@@ -240,6 +438,60 @@ abstract public class ChartSeries {
         return null;
     }
 
+    /**
+     * Complete the animation run by {@link #mValueAnimator}. Not called when the animation is
+     * stopped by {@link #pause()}
+     */
+    private void endAnimation() {
+        final DecoEvent event = mEventCurrent;
+        switch (mAnimationType) {
+            case COLOR_CHANGE:
+                mShaderFrom = null;
+                break;
+            case EFFECT:
+                if (mEffect != null) {
+                    mVisible = mEffect.postExecuteVisibility();
+                }
+                releaseEffect();
+                break;
+            case MOVE:
+                mColorAnimate = null;
+                mShaderFrom = null;
+                break;
+            default:
+                break;
+        }
+        mDrawVersion++;
+        // A series hidden as part of an effect leaves notifying to the series running the effect
+        if (event != null && (mAnimationType != AnimationType.HIDE_SHOW ||
+                event.getEventType() != DecoEvent.EventType.EVENT_EFFECT)) {
+            event.notifyEndListener();
+        }
+    }
+
+    /**
+     * Draw an effect that is shown over the series, such as
+     * {@link DecoDrawEffect.EffectType#EFFECT_BURST}. Subclasses call this once the series
+     * itself has been drawn, so the effect is not hidden beneath it
+     *
+     * @param canvas Canvas to draw onto
+     */
+    protected void drawOverlayEffect(@NonNull Canvas canvas) {
+        if (mVisible && mDrawMode == DecoEvent.EventType.EVENT_EFFECT && mEffect != null && mEffect.isOverlay()) {
+            mEffect.draw(canvas, mBoundsInset, mPercentComplete, mAngleStart, mAngleSweep);
+        }
+    }
+
+    /**
+     * Version of the state used to draw this series. If the value returned is unchanged since
+     * the last draw and the series is idle the series will draw exactly the same again.
+     *
+     * @return current draw version
+     */
+    public int getDrawVersion() {
+        return mDrawVersion + mSeriesItem.getVersion();
+    }
+
     /**
      * Determine the minimum sweep angle that should be allowed for the current settings. If the
      * sweep is 360 a complete circle is drawn, if the sweep is 0 nothing is drawn. In some
@@ -279,7 +531,86 @@ abstract public class ChartSeries {
     }
 
     /**
-     * Is the current animated move paused
+     * Retrieve the animator used for every animation of this series. Only intended to let tests
+     * check the animator is reused
+     *
+     * @return animator, or null if the series has not animated yet
+     */
+    @Nullable
+    ValueAnimator getValueAnimator() {
+        return mValueAnimator;
+    }
+
+    /**
+     * Can the series currently be drawn as part of a batch. Series drawn with a gradient, a
+     * shadow, edge details or an effect need their own draw calls
+     *
+     * @return true if the series can be batched
+     */
+    protected boolean isBatchable() {
+        if (mDrawMode == DecoEvent.EventType.EVENT_EFFECT || mShaderFrom != null) {
+            return false;
+        }
+        // The shader of the paint may not have been built yet, so check the series item
+        if (Color.alpha(mSeriesItem.getSecondaryColor()) != 0 && isGradientEnabled()) {
+            return false;
+        }
+        if (isShadowEnabled()) {
+            return false;
+        }
+        return mSeriesItem.getEdgeDetail() == null || mSeriesItem.getEdgeDetail().isEmpty() || !isEdgeDetailEnabled();
+    }
+
+    /**
+     * Is this series completely hidden by another series drawn after it, so drawing this series
+     * would have no visible result
+     *
+     * @param series Series drawn after this series
+     * @return true if no part of this series is visible
+     */
+    public boolean isCoveredBy(@NonNull ChartSeries series) {
+        return false;
+    }
+
+    /**
+     * Determine if {@link EdgeDetail} decorations should be drawn at the current render quality
+     *
+     * @return true if edge details are to be drawn
+     */
+    protected boolean isEdgeDetailEnabled() {
+        return mRenderQuality.ordinal() < DecoView.RenderQuality.QUALITY_NO_EDGE_DETAIL.ordinal();
+    }
+
+    /**
+     * Determine if gradients should be drawn at the current render quality
+     *
+     * @return true if gradients are to be drawn
+     */
+    protected boolean isGradientEnabled() {
+        return mRenderQuality.ordinal() < DecoView.RenderQuality.QUALITY_NO_GRADIENT.ordinal();
+    }
+
+    /**
+     * Is an effect animation currently being drawn for this series
+     *
+     * @return true if drawing an effect
+     */
+    public boolean isEffectRunning() {
+        return mDrawMode == DecoEvent.EventType.EVENT_EFFECT;
+    }
+
+    /**
+     * Is the series idle, that is there is no animation running that changes the drawing of
+     * the series from one frame to the next. A paused series is idle
+     *
+     * @return true if idle
+     */
+    public boolean isIdle() {
+        return mValueAnimator == null || !mValueAnimator.isRunning();
+    }
+
+    /**
+     * Is the current animation paused
      *
      * @return true if paused
      */
@@ -287,6 +618,15 @@ abstract public class ChartSeries {
         return mIsPaused;
     }
 
+    /**
+     * Determine if a shadow should be drawn at the current render quality
+     *
+     * @return true if the series has a shadow that is to be drawn
+     */
+    protected boolean isShadowEnabled() {
+        return mSeriesItem.getShadowSize() > 0 && mRenderQuality == DecoView.RenderQuality.QUALITY_FULL;
+    }
+
     /**
      * Is the series currently visible
      *
@@ -297,31 +637,80 @@ abstract public class ChartSeries {
     }
 
     /**
-     * Pause any move animation currently in progress
+     * Calculate the position of the label for this series without drawing it. The label is
+     * drawn with {@link SeriesLabel#drawLayout(Canvas)}
+     *
+     * @param canvas       Canvas the label will be drawn onto
+     * @param bounds       Bounds of the series
+     * @param anglePercent Position of the label around the series (0..1)
+     * @return bounds of the label, or null if there is no label to draw
+     */
+    @Nullable
+    public RectF layoutLabel(Canvas canvas, RectF bounds, float anglePercent) {
+        if (!mVisible || mSeriesItem.getSeriesLabel() == null) {
+            return null;
+        }
+        if (bounds == null || bounds.isEmpty()) {
+            throw new IllegalArgumentException("Drawing bounds can not be null or empty");
+        }
+        return mSeriesItem.getSeriesLabel()
+                .layout(canvas, bounds, anglePercent, getPositionPercent(), mPositionCurrentEnd);
+    }
+
+    /**
+     * Pause any animation currently in progress. This applies to moves, reveals, effects and
+     * color changes. The elapsed play time is kept so {@link #resume()} can continue from the
+     * exact same position using the same ValueAnimator
+     *
+     * @return true if an animation was paused
      */
     public boolean pause() {
         if (mValueAnimator != null && mValueAnimator.isRunning() && !mIsPaused) {
-            mValueAnimator.cancel();
+            mPausedPlayTime = mValueAnimator.getCurrentPlayTime();
+            // Set the flag before cancelling so the end listeners know this is not a real end
             mIsPaused = true;
+            mValueAnimator.cancel();
+            // The series is now idle, so make sure the last frame recorded is not reused
+            mDrawVersion++;
             return true;
         }
         return false;
     }
 
+    /**
+     * Update the series for drawing as part of a batch, as {@link #draw(Canvas, RectF)} would,
+     * without drawing it. Series that support batching add their geometry with
+     * {@link #appendToBatch(Path)} and are drawn by {@link #drawBatch(Canvas, Path)} of the first
+     * series in the batch
+     *
+     * @param canvas Canvas the batch will be drawn onto
+     * @param bounds Bounds to be used to draw the series
+     * @return false if the series must be drawn on its own with {@link #draw(Canvas, RectF)}
+     */
+    public boolean prepareBatch(Canvas canvas, RectF bounds) {
+        return false;
+    }
+
     /**
      * Adjusts the gradient used for the chart series to set the shader used in the paint. This is only done
      * if the line contains two colors and the bounds of the line has changed since it was last set.
+     * The shadow is also built for the new bounds.
      *
      * @param bounds The bounds used to draw the chart
      */
     protected void processBoundsChange(final RectF bounds) {
-        if (mBounds == null || !mBounds.equals(bounds)) {
-            mBounds = new RectF(bounds);
-            mBoundsInset = new RectF(bounds);
+        if (!mBoundsValid || !mBounds.equals(bounds)) {
+            mBoundsValid = true;
+            mBounds.set(bounds);
+            mBoundsInset.set(bounds);
             if (mSeriesItem.getInset() != null) {
                 mBoundsInset.inset(mSeriesItem.getInset().x, mSeriesItem.getInset().y);
             }
-            applyGradientToPaint();
+            if (isGradientEnabled()) {
+                applyGradientToPaint();
+            }
+            applyShadow();
+            mDrawVersion++;
         }
     }
 
@@ -347,6 +736,28 @@ abstract public class ChartSeries {
         mPaint.setStrokeWidth(lineWidth);
     }
 
+    /**
+     * Discard the display list recorded by {@link #drawRenderNode(Canvas, RectF, int, int)}.
+     * It will be recorded again on the next draw
+     */
+    public void releaseRenderNode() {
+        if (mRenderNode != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mRenderNode.discardDisplayList();
+        }
+    }
+
+    /**
+     * Release the resources of the current effect and keep it to be reused by the next effect
+     */
+    private void releaseEffect() {
+        mDrawMode = DecoEvent.EventType.EVENT_MOVE;
+        if (mEffect != null) {
+            mEffect.release();
+            mEffectRecycled = mEffect;
+            mEffect = null;
+        }
+    }
+
     /**
      * Reset the arc back to the initial values and cancel any current animations
      */
@@ -358,32 +769,35 @@ abstract public class ChartSeries {
         mPositionEnd = mSeriesItem.getInitialValue();
         mPositionCurrentEnd = mSeriesItem.getInitialValue();
         mPercentComplete = 1.0f;
-        mPaint = new Paint();
+        mPaint.reset();
         mPaint.setColor(mSeriesItem.getColor());
         mPaint.setStyle((mSeriesItem.getChartStyle() == SeriesItem.ChartStyle.STYLE_DONUT) ? Paint.Style.STROKE :
                 Paint.Style.FILL);
         mPaint.setStrokeWidth(mSeriesItem.getLineWidth());
         mPaint.setStrokeCap(mSeriesItem.getRoundCap() ? Paint.Cap.ROUND : Paint.Cap.BUTT);
-        mPaint.setAntiAlias(true);
-        if (mSeriesItem.getShadowSize() > 0) {
-            mPaint.setShadowLayer(mSeriesItem.getShadowSize(), 0, 0, mSeriesItem.getShadowColor());
-        }
+        applyRenderQuality();
         // We need to reset the bounds for the case we are drawing a gradient and need to recreate
         // based on the bounds
-        mBounds = null;
+        mBoundsValid = false;
         for (SeriesItem.SeriesItemListener seriesItemListener : mSeriesItem.getListeners()) {
             seriesItemListener.onSeriesItemAnimationProgress(mPercentComplete, mPositionCurrentEnd);
         }
     }
 
     /**
-     * Resume a previously paused move animation
+     * Resume a previously paused animation. The existing ValueAnimator is restarted and seeked
+     * to the play time recorded when paused, so no new animator is created
      *
-     * @return true if move resumed
+     * @return true if animation resumed
      */
     public boolean resume() {
         if (isPaused()) {
-            startAnimateMove(mEventCurrent);
+            // Starting the animator moves it back to the beginning and a seek made before
+            // starting is discarded. Updates are ignored until it has been moved back to the
+            // position it was paused at, so the series does not jump
+            mValueAnimator.start();
+            mIsPaused = false;
+            mValueAnimator.setCurrentPlayTime(mPausedPlayTime);
             return true;
         }
         return false;
@@ -399,6 +813,20 @@ abstract public class ChartSeries {
         mPositionEnd = position;
         mPositionCurrentEnd = position;
         mPercentComplete = 1.0f;
+        mDrawVersion++;
+    }
+
+    /**
+     * Set the quality the series is rendered at. This is controlled by the frame budget and the
+     * level of detail of the {@link DecoView}, see {@link DecoView#setFrameBudget(float)} and
+     * {@link DecoView#setLevelOfDetail(DecoView.RenderQuality, float)}
+     *
+     * @param renderQuality quality to render at
+     */
+    public void setRenderQuality(@NonNull DecoView.RenderQuality renderQuality) {
+        mRenderQuality = renderQuality;
+        applyRenderQuality();
+        mDrawVersion++;
     }
 
     /**
@@ -424,7 +852,8 @@ abstract public class ChartSeries {
         if (!mSeriesItem.getSpinClockwise()) {
             mAngleStart = (mAngleStart + mAngleSweep) % 360;
         }
-        mBounds = null;
+        mBoundsValid = false;
+        mDrawVersion++;
     }
 
     /**
@@ -440,36 +869,37 @@ abstract public class ChartSeries {
         mPercentComplete = 0f;
         final boolean changeColors = event.isColorSet();
         if (changeColors) {
-            mColorAnimate = new ColorAnimate(mSeriesItem.getColor(), event.getColor());
-            mSeriesItem.setColor(event.getColor());
+            startColorTransition(event.getColor());
         } else {
             Log.w(TAG, "Must set new color to start CHANGE_COLOR event");
             return;
         }
-        final float maxValue = 1.0f;
-        mValueAnimator = ValueAnimator.ofFloat(0, maxValue);
-        mValueAnimator.setDuration(event.getEffectDuration());
-        if (event.getInterpolator() != null) {
-            mValueAnimator.setInterpolator(event.getInterpolator());
-        } else {
-            mValueAnimator.setInterpolator(new LinearInterpolator());
-        }
-        mValueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                mPercentComplete = Float.valueOf(valueAnimator.getAnimatedValue().toString());
-                for (SeriesItem.SeriesItemListener seriesItemListener : mSeriesItem.getListeners()) {
-                    seriesItemListener.onSeriesItemDisplayProgress(mPercentComplete);
-                }
-            }
-        });
-        mValueAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                event.notifyEndListener();
+        mEventCurrent = event;
+        startAnimator(AnimationType.COLOR_CHANGE, event.getEffectDuration(),
+                (event.getInterpolator() != null) ? event.getInterpolator() : INTERPOLATOR_LINEAR);
+    }
+
+    /**
+     * Start the transition from the current color to a new color. If the series is drawn with a
+     * gradient the shader for the new color is built once now and the previous shader is kept
+     * for the cross fade, so no shader is created while the animation runs. Translucent
+     * gradients are not cross faded, as drawing one over the other would come out more opaque
+     * than either, so they change to the new gradient at once
+     *
+     * @param color new color of the series
+     */
+    private void startColorTransition(int color) {
+        final boolean opaque = Color.alpha(mSeriesItem.getColor()) == 255 && Color.alpha(color) == 255 &&
+                Color.alpha(mSeriesItem.getSecondaryColor()) == 255;
+        mColorAnimate = new ColorAnimate(mSeriesItem.getColor(), color);
+        mSeriesItem.setColor(color);
+        mShaderFrom = null;
+        if (mPaint.getShader() != null && mBoundsValid) {
+            if (opaque) {
+                mShaderFrom = mPaint.getShader();
             }
-        });
-        mValueAnimator.start();
+            applyGradientToPaint();
+        }
     }
 
     /**
@@ -482,39 +912,28 @@ abstract public class ChartSeries {
         if (event.getEffectType() == null) {
             throw new IllegalStateException("Unable to execute null effect type");
         }
-        // All effects run from 0.0 .. 1.0f in duration
-        final float maxValue = 1.0f;
         cancelAnimation();
         event.notifyStartListener();
         mVisible = true;
         mDrawMode = event.getEventType();
-        mEffect = new DecoDrawEffect(event.getEffectType(), mPaint, event.getDisplayText());
+        if (mEffectRecycled != null) {
+            mEffect = mEffectRecycled;
+            mEffect.setup(event.getEffectType(), mPaint, event.getDisplayText());
+        } else {
+            mEffect = new DecoDrawEffect(event.getEffectType(), mPaint, event.getDisplayText());
+        }
         mEffect.setRotationCount(event.getEffectRotations());
+        if (mEffect.isOverlay()) {
+            // The series is still drawn, so hold it at the current position while the effect runs
+            mPositionStart = mPositionCurrentEnd;
+            mPositionEnd = mPositionCurrentEnd;
+        }
+        mEffectFrame = 0;
         mPercentComplete = 0f;
-        mValueAnimator = ValueAnimator.ofFloat(0, maxValue);
-        mValueAnimator.setDuration(event.getEffectDuration());
-        Interpolator interpolator =
-                (event.getInterpolator() != null) ? event.getInterpolator() : new LinearInterpolator();
-        mValueAnimator.setInterpolator(interpolator);
-        mValueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                mPercentComplete = Float.valueOf(valueAnimator.getAnimatedValue().toString());
-                for (SeriesItem.SeriesItemListener seriesItemListener : mSeriesItem.getListeners()) {
-                    seriesItemListener.onSeriesItemDisplayProgress(mPercentComplete);
-                }
-            }
-        });
-        mValueAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                event.notifyEndListener();
-                mDrawMode = DecoEvent.EventType.EVENT_MOVE;
-                mVisible = mEffect.postExecuteVisibility();
-                mEffect = null;
-            }
-        });
-        mValueAnimator.start();
+        mEventCurrent = event;
+        // All effects run from 0.0 .. 1.0f in duration
+        startAnimator(AnimationType.EFFECT, event.getEffectDuration(),
+                (event.getInterpolator() != null) ? event.getInterpolator() : INTERPOLATOR_LINEAR);
     }
 
     /**
@@ -531,44 +950,23 @@ abstract public class ChartSeries {
         mDrawMode = event.getEventType();
         mPercentComplete = showArc ? 1.0f : 0f;
         mVisible = true;
-        final float maxValue = 1.0f;
-        mValueAnimator = ValueAnimator.ofFloat(0, maxValue);
-        mValueAnimator.setDuration(event.getEffectDuration());
-        mValueAnimator.setInterpolator(new LinearInterpolator());
-        mValueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                float current = Float.valueOf(valueAnimator.getAnimatedValue().toString());
-                mPercentComplete = showArc ? (maxValue - current) : current;
-                for (SeriesItem.SeriesItemListener seriesItemListener : mSeriesItem.getListeners()) {
-                    seriesItemListener.onSeriesItemDisplayProgress(mPercentComplete);
-                }
-            }
-        });
-        mValueAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (event.getEventType() != DecoEvent.EventType.EVENT_EFFECT) {
-                    event.notifyEndListener();
-                }
-            }
-        });
-        mValueAnimator.start();
+        mShowArc = showArc;
+        mEventCurrent = event;
+        startAnimator(AnimationType.HIDE_SHOW, event.getEffectDuration(), INTERPOLATOR_LINEAR);
     }
 
     /**
      * Create the animation of filling the chart by using a valueAnimator to adjust values
      */
     public void startAnimateMove(@NonNull final DecoEvent event) {
-        mIsPaused = false;
+        // Cancel first, so the end of the current animation is processed for its own event
+        cancelAnimation();
         mDrawMode = event.getEventType();
         mVisible = true;
-        cancelAnimation();
         mEventCurrent = event;
         final boolean changeColors = event.isColorSet();
         if (changeColors) {
-            mColorAnimate = new ColorAnimate(mSeriesItem.getColor(), event.getColor());
-            mSeriesItem.setColor(event.getColor());
+            startColorTransition(event.getColor());
         }
         float position = event.getEndPosition();
         event.notifyStartListener();
@@ -595,28 +993,60 @@ abstract public class ChartSeries {
             animationDuration = Math.abs((int) (mSeriesItem.getSpinDuration() *
                     ((mPositionStart - mPositionEnd) / mSeriesItem.getMaxValue())));
         }
-        mValueAnimator = ValueAnimator.ofFloat(mPositionStart, position);
-        mValueAnimator.setDuration(animationDuration);
         /**
-         * Note: When setting the Interpolator the default is
-         * {@link android.view.animation.AccelerateDecelerateInterpolator}
-         *
-         * However, if you call setInterpolator(null) then the default is not used, rather:
-         * {@link LinearInterpolator}
+         * Note: When no Interpolator is set a new ValueAnimator uses
+         * {@link android.view.animation.AccelerateDecelerateInterpolator}. The animator is reused,
+         * so that default is set explicitly
          */
-        if (event.getInterpolator() != null) {
-            mValueAnimator.setInterpolator(event.getInterpolator());
-        } else {
-            if (mSeriesItem.getInterpolator() != null) {
-                mValueAnimator.setInterpolator(mSeriesItem.getInterpolator());
-            }
+        Interpolator interpolator = event.getInterpolator();
+        if (interpolator == null) {
+            interpolator = (mSeriesItem.getInterpolator() != null) ? mSeriesItem.getInterpolator() : INTERPOLATOR_MOVE;
         }
-        mValueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                float current = Float.valueOf(valueAnimator.getAnimatedValue().toString());
-                mPercentComplete = (current - mPositionStart) / (mPositionEnd - mPositionStart);
-                mPositionCurrentEnd = current;
+        startAnimator(AnimationType.MOVE, animationDuration, interpolator);
+    }
+
+    /**
+     * Start {@link #mValueAnimator} animating from 0 to 1.0f. The animator and its listeners are
+     * created on first use, later animations only change the duration and interpolator, so
+     * replaying an event allocates no animator or listener
+     *
+     * @param animationType Type of animation, used by the listeners to process each update
+     * @param duration      Duration of the animation in milliseconds
+     * @param interpolator  Interpolator to apply
+     */
+    private void startAnimator(@NonNull AnimationType animationType, long duration,
+                               @NonNull Interpolator interpolator) {
+        if (mValueAnimator == null) {
+            mValueAnimator = ValueAnimator.ofFloat(0, 1.0f);
+            mValueAnimator.addUpdateListener(mAnimatorUpdateListener);
+            mValueAnimator.addListener(mAnimatorListener);
+        }
+        mAnimationType = animationType;
+        mValueAnimator.setDuration(duration);
+        mValueAnimator.setInterpolator(interpolator);
+        mValueAnimator.start();
+    }
+
+    /**
+     * Apply an update of {@link #mValueAnimator} to the animation being run
+     *
+     * @param value Interpolated progress of the animation, 0 .. 1.0f
+     */
+    private void updateAnimation(float value) {
+        switch (mAnimationType) {
+            case EFFECT:
+                mPercentComplete = value;
+                if (mRenderQuality == DecoView.RenderQuality.QUALITY_SKIP_EFFECT_FRAMES && (mEffectFrame++ & 1) != 0) {
+                    // Under load only every second frame of the effect is redrawn
+                    return;
+                }
+                break;
+            case HIDE_SHOW:
+                mPercentComplete = mShowArc ? (1.0f - value) : value;
+                break;
+            case MOVE:
+                mPercentComplete = value;
+                mPositionCurrentEnd = mPositionStart + value * (mPositionEnd - mPositionStart);
                 /**
                  * Notify the listeners of position update. This will be the OrbView itself and
                  * possibly the user who is using a listener to update the progress in an alternative
@@ -625,18 +1055,14 @@ abstract public class ChartSeries {
                 for (SeriesItem.SeriesItemListener seriesItemListener : mSeriesItem.getListeners()) {
                     seriesItemListener.onSeriesItemAnimationProgress(mPercentComplete, mPositionCurrentEnd);
                 }
-            }
-        });
-        mValueAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (changeColors) {
-                    mColorAnimate = null;
-                }
-                event.notifyEndListener();
-            }
-        });
-        mValueAnimator.start();
+                return;
+            default:
+                mPercentComplete = value;
+                break;
+        }
+        for (SeriesItem.SeriesItemListener seriesItemListener : mSeriesItem.getListeners()) {
+            seriesItemListener.onSeriesItemDisplayProgress(mPercentComplete);
+        }
     }
 
     /**
@@ -649,4 +1075,11 @@ abstract public class ChartSeries {
         return (Math.abs(angle) < getMinSweepAngle() && getSeriesItem().showPointWhenEmpty()) ? getMinSweepAngle() :
                 angle;
     }
+
+    /**
+     * Types of animation run by {@link #mValueAnimator}
+     */
+    private enum AnimationType {
+        COLOR_CHANGE, EFFECT, HIDE_SHOW, MOVE
+    }
 }
\ No newline at end of file
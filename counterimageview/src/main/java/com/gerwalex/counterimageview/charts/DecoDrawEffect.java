@@ -16,9 +16,9 @@
 package com.gerwalex.counterimageview.charts;
 
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
-import android.os.Build;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -29,18 +29,16 @@ import com.gerwalex.counterimageview.DecoView;
  * Animates some non-core movements for the series of data, such as fades and swirls.
  */
 public class DecoDrawEffect {
-    /**
-     * Maximum radius of circle in explode mode
-     */
-    static private final float EXPLODE_CIRCLE_MAX = 0.1f;
-    /**
-     * Minimum radius of circle in explode mode
-     */
-    static private final float EXPLODE_CIRCLE_MIN = 0.01f;
     /**
      * Number of lines created during explode animation
      */
     static private final int EXPLODE_LINE_COUNT = 9;
+    /**
+     * Unit vectors for each of the evenly spaced explode lines. The angles never change so they
+     * are calculated once rather than on every frame
+     */
+    static private final float[] EXPLODE_LINE_COS = new float[EXPLODE_LINE_COUNT];
+    static private final float[] EXPLODE_LINE_SIN = new float[EXPLODE_LINE_COUNT];
     /**
      * Maximum percentage of dimension to allow explode lines
      */
@@ -56,27 +54,64 @@ public class DecoDrawEffect {
     static private final float MAX_LINE_WIDTH = 100f;
     static private final float MIN_LINE_WIDTH = 10f;
     /**
-     * Effect type to draw
-     * {@link EffectType}
+     * Percentage of the burst effect after which the particles start to fade out
      */
-    private final EffectType mEffectType;
+    static private final float BURST_FADE_START = 0.6f;
     /**
-     * Bounds used to allow contraction (or expansion) of spiral animations
+     * Amount each group of burst particles is lightened towards white
      */
-    private final RectF mSpinBounds = new RectF();
-    private int mCircuits = 6;
+    static private final float[] BURST_LIGHTEN = {0f, 0.4f, 0.8f};
+    /**
+     * Number of circuits made by the spiral effects unless set by the event
+     */
+    static private final int DEFAULT_CIRCUITS = 6;
+    /**
+     * Number of floats needed to describe one line for {@link Canvas#drawLines(float[], int, int, Paint)}
+     */
+    static private final int POINTS_PER_LINE = 4;
     /**
      * Paint to use for drawing arc item in effect
      */
-    private Paint mPaint;
+    private final Paint mPaint = new Paint();
     /**
      * Paint to use for drawing explode effect
      */
-    private Paint mPaintExplode;
+    private final Paint mPaintExplode = new Paint();
     /**
      * Paint to use for drawing text in effect
      */
-    private Paint mPaintText;
+    private final Paint mPaintText = new Paint();
+    /**
+     * Color of each group of particles in the burst effect
+     */
+    private final int[] mParticleColors = new int[ParticleBuffer.COLOR_COUNT];
+    /**
+     * Buffer of line end points, so all the lines of an effect are submitted in a single
+     * drawLines call. Grown as required by {@link #obtainLinePoints(int)}
+     */
+    private float[] mLinePoints = new float[EXPLODE_LINE_COUNT * POINTS_PER_LINE];
+    /**
+     * Bounds used to allow contraction (or expansion) of spiral animations
+     */
+    private final RectF mSpinBounds = new RectF();
+    private int mCircuits = DEFAULT_CIRCUITS;
+    /**
+     * Effect type to draw
+     * {@link EffectType}
+     */
+    private EffectType mEffectType;
+    /**
+     * Particles of the burst effect, taken from the shared pool on the first frame
+     */
+    private ParticleBuffer mParticles;
+
+    static {
+        for (int i = 0; i < EXPLODE_LINE_COUNT; i++) {
+            double radians = Math.toRadians(i * (360f / EXPLODE_LINE_COUNT));
+            EXPLODE_LINE_COS[i] = (float) Math.cos(radians);
+            EXPLODE_LINE_SIN[i] = (float) Math.sin(radians);
+        }
+    }
     /**
      * String to display during EFFECT_EXPLODE and EFFECT_SPIRAL_EXPLODE
      */
@@ -94,9 +129,7 @@ public class DecoDrawEffect {
      *                   Clients of this library need only to pass an EffectType to the {@link DecoView}
      */
     DecoDrawEffect(@NonNull EffectType effectType, @NonNull Paint paint, @Nullable String text) {
-        mEffectType = effectType;
-        setPaint(paint);
-        setText(text, paint.getColor());
+        setup(effectType, paint, text);
     }
 
     @SuppressWarnings("unused")
@@ -143,7 +176,31 @@ public class DecoDrawEffect {
             case EFFECT_SPIRAL_OUT_FILL:
                 drawMoveToCenter(canvas, bounds, percentComplete, startAngle, sweepAngle);
                 break;
+            case EFFECT_BURST:
+                drawBurst(canvas, bounds, percentComplete);
+                break;
+        }
+    }
+
+    /**
+     * Creates an animation where particles burst outward from the series and fall away, fading
+     * out towards the end of the animation
+     *
+     * @param canvas          Canvas to draw effect onto
+     * @param bounds          Area to perform the effect
+     * @param percentComplete percentage of the animation that has been completed (0..1)
+     */
+    public void drawBurst(@NonNull Canvas canvas, @NonNull RectF bounds, float percentComplete) {
+        if (mParticles == null) {
+            mParticles = ParticleBuffer.obtain();
+            mParticles.emit(1f);
+        }
+        mParticles.update(percentComplete);
+        int alpha = mPaint.getAlpha();
+        if (percentComplete > BURST_FADE_START) {
+            alpha = (int) (alpha * (1f - (percentComplete - BURST_FADE_START) / (1f - BURST_FADE_START)));
         }
+        mParticles.draw(canvas, bounds, mPaintExplode, mParticleColors, alpha);
     }
 
     /**
@@ -155,7 +212,6 @@ public class DecoDrawEffect {
      * @param percentComplete percentage of the animation that has been completed (0..1)
      */
     public void drawExplode(@NonNull Canvas canvas, RectF bounds, float percentComplete) {
-        boolean drawCircles = Build.VERSION.SDK_INT <= 17;
         final float maxLength = bounds.width() * EXPLODE_LINE_MAX;
         final float minLength = bounds.width() * EXPLODE_LINE_MIN;
         final float startPosition = bounds.width() * EXPLODE_LINE_MAX;
@@ -174,34 +230,22 @@ public class DecoDrawEffect {
         }
         float radiusEnd = startPosition + (int) (((bounds.width() / 2) - startPosition) * percentComplete);
         float radiusStart = radiusEnd - length;
-        float angleInDegrees = 0;
+        final float centerX = bounds.centerX();
+        final float centerY = bounds.centerY();
+        float[] points = obtainLinePoints(EXPLODE_LINE_COUNT);
+        int index = 0;
         for (int i = 0; i < EXPLODE_LINE_COUNT; i++) {
-            drawExplodeLine(canvas, bounds, radiusStart, radiusEnd, angleInDegrees, percentComplete, drawCircles);
-            angleInDegrees += (360f / EXPLODE_LINE_COUNT);
+            points[index++] = (radiusStart * EXPLODE_LINE_COS[i]) + centerX;
+            points[index++] = (radiusStart * EXPLODE_LINE_SIN[i]) + centerY;
+            points[index++] = (radiusEnd * EXPLODE_LINE_COS[i]) + centerX;
+            points[index++] = (radiusEnd * EXPLODE_LINE_SIN[i]) + centerY;
         }
+        canvas.drawLines(points, 0, index, mPaintExplode);
         if (alpha < MAX_ALPHA) {
             mPaint.setAlpha(initialAlpha);
         }
     }
 
-    private void drawExplodeLine(@NonNull Canvas canvas, RectF bounds, float radiusStart, float radiusEnd,
-                                 float angleInDegrees, float percentComplete, boolean compatMode) {
-        float startX = (radiusStart * (float) Math.cos(angleInDegrees * Math.PI / 180F)) + bounds.centerX();
-        float startY = (radiusStart * (float) Math.sin(angleInDegrees * Math.PI / 180F)) + bounds.centerY();
-        float endX = (radiusEnd * (float) Math.cos(angleInDegrees * Math.PI / 180F)) + bounds.centerX();
-        float endY = (radiusEnd * (float) Math.sin(angleInDegrees * Math.PI / 180F)) + bounds.centerY();
-        if (!compatMode) {
-            canvas.drawLine(startX, startY, endX, endY, mPaintExplode);
-        } else {
-            // Bug on older Android versions where drawLine does not apply round cap when
-            // using drawLine when hardware acceleration is enabled. In this case
-            // we just draw a circle instead
-            float radius = (bounds.width() * EXPLODE_CIRCLE_MIN) +
-                    ((bounds.width() * EXPLODE_CIRCLE_MAX - bounds.width() * EXPLODE_CIRCLE_MIN) * percentComplete);
-            canvas.drawCircle(endX, endY, radius, mPaintExplode);
-        }
-    }
-
     /**
      * Animate the series in a spiral motion moving to of from the center of the bounds.
      * <p/>
@@ -299,17 +343,52 @@ public class DecoDrawEffect {
         return sweepMax - (sweepMax - sweepMin) * ((percentComplete - 0.5f) * 2);
     }
 
+    /**
+     * Is the effect drawn on top of the series, rather than replacing the series while it runs
+     *
+     * @return true if the series should also be drawn
+     */
+    public boolean isOverlay() {
+        return mEffectType == EffectType.EFFECT_BURST;
+    }
+
+    /**
+     * Retrieve the buffer used to batch lines into a single draw call, growing it if it cannot
+     * hold the requested number of lines
+     *
+     * @param lineCount number of lines to be drawn
+     * @return buffer of at least lineCount * 4 floats
+     */
+    private float[] obtainLinePoints(int lineCount) {
+        if (mLinePoints.length < lineCount * POINTS_PER_LINE) {
+            mLinePoints = new float[lineCount * POINTS_PER_LINE];
+        }
+        return mLinePoints;
+    }
+
     /**
      * Determine the visibility of the arc on completion of this animation effect.
      *
      * @return should remain visible
      */
     public boolean postExecuteVisibility() {
-        return (mEffectType == EffectType.EFFECT_SPIRAL_OUT) || (mEffectType == EffectType.EFFECT_SPIRAL_OUT_FILL);
+        return (mEffectType == EffectType.EFFECT_SPIRAL_OUT) || (mEffectType == EffectType.EFFECT_SPIRAL_OUT_FILL) ||
+                (mEffectType == EffectType.EFFECT_BURST);
+    }
+
+    /**
+     * Release resources held for the effect once it has finished. Particles are returned to the
+     * shared pool for use by the next burst
+     */
+    void release() {
+        if (mParticles != null) {
+            mParticles.recycle();
+            mParticles = null;
+        }
     }
 
     private void setPaint(@NonNull Paint paint) {
-        mPaint = new Paint(paint);
+        mPaint.set(paint);
         mPaint.setStrokeCap(Paint.Cap.ROUND);
         mPaint.setStyle(Paint.Style.FILL_AND_STROKE);
         mPaint.setStrokeWidth(determineLineWidth(paint, 1f));
@@ -318,10 +397,17 @@ public class DecoDrawEffect {
          * The line width is made smaller as they will be X lines created during this explode
          * effect
          */
-        mPaintExplode = new Paint(paint);
+        mPaintExplode.set(paint);
         mPaintExplode.setStrokeCap(Paint.Cap.ROUND);
         mPaintExplode.setStyle(Paint.Style.FILL);
         mPaintExplode.setStrokeWidth(determineLineWidth(paint, 0.66f));
+        final int color = paint.getColor();
+        for (int i = 0; i < mParticleColors.length; i++) {
+            float lighten = BURST_LIGHTEN[i];
+            mParticleColors[i] = Color.rgb(Color.red(color) + (int) ((255 - Color.red(color)) * lighten),
+                    Color.green(color) + (int) ((255 - Color.green(color)) * lighten),
+                    Color.blue(color) + (int) ((255 - Color.blue(color)) * lighten));
+        }
     }
 
     @SuppressWarnings("unused")
@@ -337,12 +423,28 @@ public class DecoDrawEffect {
      */
     public void setText(@Nullable String text, int color) {
         mText = text;
-        mPaintText = new Paint();
+        mPaintText.reset();
         mPaintText.setColor(color);
         mPaintText.setTextAlign(Paint.Align.CENTER);
         mPaintText.setAntiAlias(true);
     }
 
+    /**
+     * Prepare the effect for a new animation. The paints held by the effect are updated in
+     * place, allowing a series to reuse one instance for each effect it executes
+     *
+     * @param effectType Type of animation
+     * @param paint      Paint to use to perform the effect
+     * @param text       Optional text to display during some effects
+     */
+    void setup(@NonNull EffectType effectType, @NonNull Paint paint, @Nullable String text) {
+        release();
+        mEffectType = effectType;
+        mCircuits = DEFAULT_CIRCUITS;
+        setPaint(paint);
+        setText(text, paint.getColor());
+    }
+
     /**
      * Type of effect to display
      */
@@ -351,6 +453,7 @@ public class DecoDrawEffect {
         EFFECT_SPIRAL_OUT, /* Animation from center to outside in spiral motion */
         EFFECT_SPIRAL_IN, /* Animation from outside to center in spiral motion */
         EFFECT_EXPLODE, /* Explode animation where several lines are produced from center */
-        EFFECT_SPIRAL_EXPLODE /* Combines EFFECT_SPIRAL_IN and EFFECT_EXPLODE */
+        EFFECT_SPIRAL_EXPLODE, /* Combines EFFECT_SPIRAL_IN and EFFECT_EXPLODE */
+        EFFECT_BURST /* Particles burst out from the series, which stays visible. eg. when a goal is reached */
     }
 }
\ No newline at end of file
@@ -15,15 +15,15 @@
  */
 package com.gerwalex.counterimageview.charts;
 
-import android.graphics.Path;
+import android.graphics.RectF;
 
 import androidx.annotation.NonNull;
 
 /**
  * EdgeDetail allows the addition of a shadow effect on the edge of the series. This can be
  * added to the inner or outer edge and the usual approach would be to have a semi-transparent shade
- * as the effect. This requires on old versions of Android 4.0-4.3 that Hardware acceleration is
- * turned off for the view.
+ * as the effect. The edge is drawn as an additional arc concentric with the series so no
+ * clipping is required.
  * <p>
  * NOTE: It is possible to apply any number of edge detail to each series. If you so desired you
  * could apply a rainbow effect by applying many different colors at different widths
@@ -46,9 +46,19 @@ public class EdgeDetail {
      */
     private final float mRatio;
     /**
-     * Internal clip path used to apply the effect to only {@link #mRatio} of the line
+     * Bounds to draw the edge with, calculated from {@link #mKeyBounds}
      */
-    private Path mClipPath;
+    private final RectF mDrawBounds = new RectF();
+    /**
+     * Series bounds that {@link #mDrawBounds} and {@link #mDrawWidth} were calculated for
+     */
+    private final RectF mKeyBounds = new RectF();
+    /**
+     * Line width to draw the edge with
+     */
+    private float mDrawWidth;
+    private SeriesItem.ChartStyle mKeyChartStyle;
+    private float mKeyLineWidth = -1;
 
     @SuppressWarnings("unused")
     public EdgeDetail(@NonNull EdgeType edgeType, int color, float percentRatio) {
@@ -64,27 +74,60 @@ public class EdgeDetail {
         mEdgeType = edgeDetail.mEdgeType;
         mColor = edgeDetail.mColor;
         mRatio = edgeDetail.mRatio;
-        mClipPath = null;
     }
 
     /**
-     * Clip path used when drawing the edge effect. Even though each individual chart type draws its
-     * own edge effect, we store the clip path in this object so it does not need to be reallocated
-     * on each draw
+     * Calculate the bounds used to draw this edge for a series. The result is kept and only
+     * calculated again when the bounds, line width or chart style of the series change, such as
+     * after the view is resized or rotated.
+     * <p/>
+     * For a donut the edge is a narrower arc moved to the inner or outer edge of the line. For a
+     * pie EDGE_OUTER is a band at the rim and EDGE_INNER a wedge covering the ratio of the radius
      *
-     * @return Path used for clipping edge effect
+     * @param bounds     Bounds of the series after inset
+     * @param lineWidth  Current line width of the series
+     * @param chartStyle Style of the series
+     * @return Bounds to draw the edge arc with
      */
-    Path getClipPath() {
-        return mClipPath;
+    RectF getDrawBounds(@NonNull RectF bounds, float lineWidth, @NonNull SeriesItem.ChartStyle chartStyle) {
+        if (lineWidth == mKeyLineWidth && chartStyle == mKeyChartStyle && bounds.equals(mKeyBounds)) {
+            return mDrawBounds;
+        }
+        mKeyBounds.set(bounds);
+        mKeyLineWidth = lineWidth;
+        mKeyChartStyle = chartStyle;
+        mDrawBounds.set(bounds);
+        float inset;
+        if (chartStyle == SeriesItem.ChartStyle.STYLE_PIE) {
+            if (mEdgeType == EdgeType.EDGE_INNER) {
+                mDrawWidth = 0;
+                inset = (bounds.width() / 2) * (1.0f - mRatio);
+            } else {
+                // Band between the outside of the pie and the same radius used by a donut edge
+                mDrawWidth = (mRatio - 0.5f) * lineWidth;
+                inset = mDrawWidth / 2;
+            }
+        } else {
+            mDrawWidth = lineWidth * mRatio;
+            // Move the center of the narrower line to the inner or outer edge of the series
+            inset = (lineWidth - mDrawWidth) / 2;
+            if (mEdgeType == EdgeType.EDGE_OUTER) {
+                inset = -inset;
+            }
+        }
+        mDrawBounds.inset(inset, inset);
+        return mDrawBounds;
     }
 
     /**
-     * Set the clip path for the edge effect
+     * Line width to draw the edge with. Only valid after calling
+     * {@link #getDrawBounds(RectF, float, SeriesItem.ChartStyle)}. For a pie EDGE_INNER this is 0
+     * as the edge is filled
      *
-     * @param clipPath Path for clipping
+     * @return line width of the edge
      */
-    void setClipPath(Path clipPath) {
-        mClipPath = clipPath;
+    float getDrawWidth() {
+        return mDrawWidth;
     }
 
     /**
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2015 Brent Marriott
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gerwalex.counterimageview.charts;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Glyphs of one typeface and text size rasterized into a shared alpha bitmap. Text made of
+ * glyphs held in the atlas is drawn by copying each glyph from the bitmap, rather than shaping
+ * and rasterizing the text on every frame. This suits labels whose value is animated.
+ * <p/>
+ * Digits, signs, separators, the percent symbol and space are rasterized when the atlas is
+ * created. Other characters are added the first time they are drawn, until the atlas is full.
+ * Glyphs are positioned by their advance only, so kerning is not applied.
+ * <p/>
+ * Atlases are shared by all labels with the same typeface and text size. All access is
+ * expected from the UI thread.
+ */
+final class GlyphAtlas {
+    /**
+     * Maximum number of atlases kept for reuse
+     */
+    static private final int MAX_ATLASES = 4;
+    /**
+     * Maximum number of glyphs held in one atlas
+     */
+    static private final int MAX_GLYPHS = 48;
+    /**
+     * Glyphs rasterized when the atlas is created
+     */
+    static private final String PRELOAD_GLYPHS = "0123456789+-.,% ";
+    /**
+     * Atlases in use, most recently used first
+     */
+    static private final GlyphAtlas[] mAtlases = new GlyphAtlas[MAX_ATLASES];
+    /**
+     * Advance of each glyph in the atlas
+     */
+    private final float[] mAdvance = new float[MAX_GLYPHS];
+    /**
+     * Distance from the top of each cell to the baseline
+     */
+    private final float mBaseline;
+    private final Bitmap mBitmap;
+    private final Canvas mCanvas;
+    private final int mCellHeight;
+    private final int mCellWidth;
+    /**
+     * Destination of the glyph being drawn
+     */
+    private final Rect mDest = new Rect();
+    private final Paint mPaint;
+    /**
+     * Slot + 1 of each character in the atlas, or 0 if the character has not been added
+     */
+    private final int[] mSlots = new int[256];
+    /**
+     * Source of the glyph being drawn
+     */
+    private final Rect mSource = new Rect();
+    private final float mTextSize;
+    @Nullable
+    private final Typeface mTypeface;
+    private int mGlyphCount;
+
+    private GlyphAtlas(@NonNull Paint paint) {
+        mTypeface = paint.getTypeface();
+        mTextSize = paint.getTextSize();
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        mPaint.setColor(Color.WHITE);
+        mPaint.setTextSize(mTextSize);
+        mPaint.setTypeface(mTypeface);
+        mPaint.setTextAlign(Paint.Align.LEFT);
+        mBaseline = (float) Math.ceil(-mPaint.ascent()) + 1;
+        mCellHeight = (int) (mBaseline + Math.ceil(mPaint.descent())) + 1;
+        // Allow each cell to hold the widest common glyph with a pixel either side
+        mCellWidth = (int) Math.ceil(mPaint.measureText("W")) + 2;
+        mBitmap = Bitmap.createBitmap(mCellWidth * MAX_GLYPHS, mCellHeight, Bitmap.Config.ALPHA_8);
+        mCanvas = new Canvas(mBitmap);
+        for (int i = 0; i < PRELOAD_GLYPHS.length(); i++) {
+            addGlyph(PRELOAD_GLYPHS.charAt(i));
+        }
+    }
+
+    /**
+     * Retrieve the atlas for the typeface and text size of the paint, creating it if required
+     *
+     * @param paint Paint used to draw the text
+     * @return shared atlas
+     */
+    @NonNull
+    static GlyphAtlas obtain(@NonNull Paint paint) {
+        int index = 0;
+        while (index < MAX_ATLASES - 1 && mAtlases[index] != null && !mAtlases[index].matches(paint)) {
+            index++;
+        }
+        GlyphAtlas atlas = mAtlases[index];
+        if (atlas == null || !atlas.matches(paint)) {
+            // Not found, the least recently used atlas is dropped
+            atlas = new GlyphAtlas(paint);
+        }
+        System.arraycopy(mAtlases, 0, mAtlases, 1, index);
+        mAtlases[0] = atlas;
+        return atlas;
+    }
+
+    /**
+     * Rasterize a glyph into the next free slot of the atlas
+     *
+     * @param c character to add
+     * @return slot + 1 of the glyph, or 0 if the glyph can not be held in the atlas
+     */
+    private int addGlyph(char c) {
+        if (c >= mSlots.length || mGlyphCount >= MAX_GLYPHS) {
+            return 0;
+        }
+        float advance = mPaint.measureText(String.valueOf(c));
+        if (advance > mCellWidth - 2) {
+            return 0;
+        }
+        int slot = mGlyphCount++;
+        mAdvance[slot] = advance;
+        mCanvas.drawText(String.valueOf(c), slot * mCellWidth + 1, mBaseline, mPaint);
+        mSlots[c] = slot + 1;
+        return slot + 1;
+    }
+
+    /**
+     * Draw text centered on the given position. The color and alpha of the paint are applied to
+     * the glyphs.
+     *
+     * @param canvas Canvas to draw onto
+     * @param text   Text to draw
+     * @param start  Index of the first character to draw
+     * @param count  Number of characters to draw
+     * @param x      Horizontal center of the text
+     * @param y      Baseline of the text
+     * @param paint  Paint used for the text
+     * @return false if the text contains a character that can not be held in the atlas, in which
+     * case nothing is drawn
+     */
+    boolean drawText(@NonNull Canvas canvas, @NonNull char[] text, int start, int count, float x, float y,
+                     @NonNull Paint paint) {
+        float width = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text[i];
+            int slot = c < mSlots.length ? mSlots[c] : 0;
+            if (slot == 0) {
+                slot = addGlyph(c);
+                if (slot == 0) {
+                    return false;
+                }
+            }
+            width += mAdvance[slot - 1];
+        }
+        float left = x - (width / 2);
+        final int top = Math.round(y - mBaseline);
+        for (int i = start; i < start + count; i++) {
+            int slot = mSlots[text[i]] - 1;
+            // Glyphs are placed on whole pixels so they are copied without filtering
+            int destLeft = Math.round(left) - 1;
+            mSource.set(slot * mCellWidth, 0, (slot + 1) * mCellWidth, mCellHeight);
+            mDest.set(destLeft, top, destLeft + mCellWidth, top + mCellHeight);
+            canvas.drawBitmap(mBitmap, mSource, mDest, paint);
+            left += mAdvance[slot];
+        }
+        return true;
+    }
+
+    private boolean matches(@NonNull Paint paint) {
+        return mTypeface == paint.getTypeface() && mTextSize == paint.getTextSize();
+    }
+}
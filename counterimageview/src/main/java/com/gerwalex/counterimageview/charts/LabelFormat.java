@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2015 Brent Marriott
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gerwalex.counterimageview.charts;
+
+import androidx.annotation.NonNull;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Precompiled form of the text of a {@link SeriesLabel}. The label is parsed once and each
+ * value is then written into a reusable char[] without allocating.
+ * <p/>
+ * Labels holding a single float conversion with an optional precision, such as
+ * "Goal %.0f%%" or "%.1f min to goal", are formatted directly. Any other format is passed to
+ * {@link String#format(String, Object...)} as before.
+ */
+final class LabelFormat {
+    /**
+     * Precision used by String.format when none is given
+     */
+    static private final int DEFAULT_PRECISION = 6;
+    /**
+     * Largest precision formatted without falling back to String.format
+     */
+    static private final int MAX_PRECISION = 6;
+    /**
+     * Largest value formatted without falling back to String.format
+     */
+    static private final double MAX_VALUE = 1e12;
+    /**
+     * Powers of ten for each supported precision
+     */
+    static private final long[] SCALE = {1, 10, 100, 1000, 10000, 100000, 1000000};
+    /**
+     * Separator between the integer and fraction digits, for the default locale
+     */
+    private final char mDecimalSeparator;
+    /**
+     * Does the label contain a value, or only fixed text
+     */
+    private final boolean mHasValue;
+    private final String mLabel;
+    /**
+     * Is the value displayed as a percentage. This is the case when the label contains %%
+     */
+    private final boolean mPercent;
+    /**
+     * Text before the value, with escaped percent symbols resolved
+     */
+    private final String mPrefix;
+    /**
+     * Number of digits after the decimal separator
+     */
+    private final int mPrecision;
+    /**
+     * Text after the value, with escaped percent symbols resolved
+     */
+    private final String mSuffix;
+    /**
+     * Can the label be formatted directly, or is String.format required
+     */
+    private final boolean mSupported;
+    /**
+     * Zero digit for the default locale
+     */
+    private final char mZeroDigit;
+    /**
+     * Formatted text, see {@link #getText()}
+     */
+    private char[] mText = new char[32];
+
+    LabelFormat(@NonNull String label) {
+        mLabel = label;
+        mPercent = label.contains("%%");
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+        mDecimalSeparator = symbols.getDecimalSeparator();
+        mZeroDigit = symbols.getZeroDigit();
+        String prefix = null;
+        int precision = DEFAULT_PRECISION;
+        boolean supported = true;
+        StringBuilder builder = new StringBuilder(label.length());
+        int i = 0;
+        while (i < label.length()) {
+            char c = label.charAt(i++);
+            if (c != '%') {
+                builder.append(c);
+                continue;
+            }
+            if (i < label.length() && label.charAt(i) == '%') {
+                builder.append('%');
+                i++;
+                continue;
+            }
+            if (prefix != null) {
+                // More than one value in the label
+                supported = false;
+                break;
+            }
+            if (i < label.length() && label.charAt(i) == '.') {
+                precision = -1;
+                while (++i < label.length() && Character.isDigit(label.charAt(i))) {
+                    precision = Math.min(Math.max(precision, 0) * 10 + (label.charAt(i) - '0'), MAX_PRECISION + 1);
+                }
+            }
+            if (i >= label.length() || label.charAt(i) != 'f' || precision < 0 || precision > MAX_PRECISION) {
+                // Flags, width or conversions other than float are left to String.format
+                supported = false;
+                break;
+            }
+            i++;
+            prefix = builder.toString();
+            builder.setLength(0);
+        }
+        mHasValue = prefix != null;
+        mSupported = supported;
+        mPrefix = mHasValue ? prefix : builder.toString();
+        mSuffix = mHasValue ? builder.toString() : "";
+        mPrecision = mHasValue ? precision : 0;
+        if (!mHasValue) {
+            // Fixed text is written to the buffer once
+            setText(mPrefix, 0);
+        }
+    }
+
+    /**
+     * Format the label for the given state of the series
+     *
+     * @param percentComplete percentage of the series filled (0..1)
+     * @param positionValue   current value of the series
+     * @return number of characters written to {@link #getText()}
+     */
+    int format(float percentComplete, float positionValue) {
+        if (mSupported && !mHasValue) {
+            // Fixed text, already held in the buffer
+            return mPrefix.length();
+        }
+        float value = mPercent ? percentComplete * 100f : positionValue;
+        if (!mSupported || Float.isNaN(value) || Math.abs(value) >= MAX_VALUE) {
+            return setText(String.format(mLabel, value), 0);
+        }
+        int length = setText(mPrefix, 0);
+        length = writeValue(value, length);
+        return setText(mSuffix, length);
+    }
+
+    /**
+     * Retrieve the buffer holding the text written by the last call to
+     * {@link #format(float, float)}. The buffer is reused for each call
+     *
+     * @return formatted text
+     */
+    @NonNull
+    char[] getText() {
+        return mText;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mText.length < capacity) {
+            char[] text = new char[Math.max(capacity, mText.length * 2)];
+            System.arraycopy(mText, 0, text, 0, mText.length);
+            mText = text;
+        }
+    }
+
+    private int setText(@NonNull String text, int offset) {
+        ensureCapacity(offset + text.length());
+        text.getChars(0, text.length(), mText, offset);
+        return offset + text.length();
+    }
+
+    /**
+     * Write the value rounded half up to the precision of the label, as String.format does.
+     * <p/>
+     * String.format rounds the decimal digits of {@link Double#toString(double)}. For a float
+     * converted to double those digits round the same way as the exact binary value, which has
+     * at most 24 significant bits. Scaled by at most 10^6 it is still held exactly by a double,
+     * so the rounding below is exact without the allocations of a BigDecimal
+     */
+    private int writeValue(float value, int offset) {
+        // Sign, up to 13 integer digits, separator and the fraction digits
+        ensureCapacity(offset + 15 + mPrecision);
+        final long scale = SCALE[mPrecision];
+        final double magnitude = Math.abs((double) value) * scale;
+        long scaled = (long) magnitude;
+        if (magnitude - scaled >= 0.5) {
+            scaled++;
+        }
+        // String.format keeps the sign of negative zero and of negative values rounded to zero
+        if (Float.compare(value, 0f) < 0) {
+            mText[offset++] = '-';
+        }
+        long whole = scaled / scale;
+        long fraction = scaled % scale;
+        int start = offset;
+        do {
+            mText[offset++] = (char) (mZeroDigit + (whole % 10));
+            whole /= 10;
+        } while (whole > 0);
+        // Digits were written least significant first
+        for (int i = start, j = offset - 1; i < j; i++, j--) {
+            char c = mText[i];
+            mText[i] = mText[j];
+            mText[j] = c;
+        }
+        if (mPrecision > 0) {
+            mText[offset++] = mDecimalSeparator;
+            for (int i = mPrecision - 1; i >= 0; i--) {
+                mText[offset + i] = (char) (mZeroDigit + (fraction % 10));
+                fraction /= 10;
+            }
+            offset += mPrecision;
+        }
+        return offset;
+    }
+}
@@ -18,24 +18,32 @@ package com.gerwalex.counterimageview.charts;
 import android.graphics.Canvas;
 import android.graphics.Path;
 import android.graphics.RectF;
-import android.graphics.Region;
-import android.util.Log;
+import android.graphics.Shader;
 
 import androidx.annotation.NonNull;
 
-import com.gerwalex.counterimageview.DecoView;
-
 import java.util.ArrayList;
 
 /**
  * Concrete class to use for Arc based line chart type drawing
  */
 public class LineArcSeries extends ArcSeries {
+    /**
+     * Set when the series has nothing to add to the batch it has been prepared for
+     */
+    private boolean mBatchEmpty;
 
     public LineArcSeries(@NonNull SeriesItem seriesItem, int totalAngle, int rotateAngle) {
         super(seriesItem, totalAngle, rotateAngle);
     }
 
+    @Override
+    public void appendToBatch(@NonNull Path path) {
+        if (!mBatchEmpty) {
+            path.addArc(mBoundsInset, mArcAngleStart, mArcAngleSweep);
+        }
+    }
+
     /**
      * Draw this arc in the current position calculated by the ValueAnimator.
      *
@@ -44,11 +52,11 @@ public class LineArcSeries extends ArcSeries {
      */
     @Override
     public boolean draw(Canvas canvas, RectF bounds) {
-        if (super.draw(canvas, bounds)) {
-            return true;
+        if (!super.draw(canvas, bounds)) {
+            drawArc(canvas);
+            drawArcEdgeDetail(canvas);
         }
-        drawArc(canvas);
-        drawArcEdgeDetail(canvas);
+        drawOverlayEffect(canvas);
         return true;
     }
 
@@ -56,60 +64,44 @@ public class LineArcSeries extends ArcSeries {
         if (mArcAngleSweep == 0) {
             return;
         }
-        canvas.drawArc(mBoundsInset, mArcAngleStart, mArcAngleSweep, false, mPaint);
+        drawArcShaded(canvas, false);
     }
 
     /**
-     * Draw the {@link EdgeDetail} for this View. Note that on API 11 - 17 clipPath is only available
-     * if HardwareAcceleration is disable. A function {@link DecoView#enableCompatibilityMode()}
-     * is provided which will disable on affected platforms however this needs to be explicitly
-     * called by the user, otherwise EdgeDetails will not be drawn
+     * Draw the {@link EdgeDetail} for this View. Each edge detail is drawn as a narrower arc
+     * concentric with the series, positioned so it covers the inner or outer part of the line.
+     * No clipping is used, so this works with hardware acceleration on all API levels and is
+     * anti-aliased
      *
      * @param canvas Canvas to draw to
      */
     private void drawArcEdgeDetail(@NonNull Canvas canvas) {
         ArrayList<EdgeDetail> edgeDetailList = getSeriesItem().getEdgeDetail();
-        if (edgeDetailList == null) {
+        if (edgeDetailList == null || !isEdgeDetailEnabled() || mArcAngleSweep == 0) {
             return;
         }
-        for (EdgeDetail edgeDetail : edgeDetailList) {
-            final boolean drawInner = edgeDetail.getEdgeType() == EdgeDetail.EdgeType.EDGE_INNER;
-            if (edgeDetail.getClipPath() == null) {
-                float inset = (edgeDetail.getRatio() - 0.5f) * mSeriesItem.getLineWidth();
-                if (drawInner) {
-                    inset = -inset;
-                }
-                Path clipPath = new Path();
-                RectF clipRect = new RectF(mBoundsInset);
-                clipRect.inset(inset, inset);
-                clipPath.addOval(clipRect, Path.Direction.CW);
-                edgeDetail.setClipPath(clipPath);
-            }
-            drawClippedArc(canvas, edgeDetail.getClipPath(), edgeDetail.getColor(),
-                    drawInner ? Region.Op.INTERSECT : Region.Op.DIFFERENCE);
+        final float lineWidth = mPaint.getStrokeWidth();
+        final int colorOld = mPaint.getColor();
+        final Shader shaderOld = mPaint.getShader();
+        mPaint.setShader(null);
+        for (int i = 0; i < edgeDetailList.size(); i++) {
+            EdgeDetail edgeDetail = edgeDetailList.get(i);
+            RectF edgeBounds = edgeDetail.getDrawBounds(mBoundsInset, lineWidth, SeriesItem.ChartStyle.STYLE_DONUT);
+            mPaint.setColor(edgeDetail.getColor());
+            mPaint.setStrokeWidth(edgeDetail.getDrawWidth());
+            canvas.drawArc(edgeBounds, mArcAngleStart, mArcAngleSweep, false, mPaint);
         }
+        mPaint.setStrokeWidth(lineWidth);
+        mPaint.setColor(colorOld);
+        mPaint.setShader(shaderOld);
     }
 
-    /**
-     * Draw the {@link EdgeDetail} for this View. Note that on API 11 - 17 clipPath is only available
-     * if HardwareAcceleration is disable. A function {@link DecoView#enableCompatibilityMode()}
-     * is provided which will disable on affected platforms however this needs to be explicitly
-     * called by the user, otherwise EdgeDetails will not be drawn
-     */
-    protected void drawClippedArc(@NonNull Canvas canvas, @NonNull Path path, int color, @NonNull Region.Op combine) {
-        canvas.save();
-        try {
-            canvas.clipPath(path, combine);
-        } catch (UnsupportedOperationException e) {
-            Log.w(TAG,
-                    "clipPath unavailable on API 11 - 17 without disabling hardware acceleration. (EdgeDetail functionality requires clipPath). Call DecoView.enableCompatibilityMode() to enable");
-            canvas.restore();
-            return;
+    @Override
+    public boolean prepareBatch(Canvas canvas, RectF bounds) {
+        if (!isBatchable()) {
+            return false;
         }
-        int colorOld = mPaint.getColor();
-        mPaint.setColor(color);
-        drawArc(canvas);
-        mPaint.setColor(colorOld);
-        canvas.restore();
+        mBatchEmpty = super.draw(canvas, bounds);
+        return true;
     }
 }
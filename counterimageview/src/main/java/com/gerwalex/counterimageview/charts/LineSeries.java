@@ -17,25 +17,56 @@ package com.gerwalex.counterimageview.charts;
 
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.LinearGradient;
-import android.graphics.Path;
 import android.graphics.RectF;
-import android.graphics.Shader;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.gerwalex.counterimageview.DecoView;
 
+/**
+ * Series drawn as a straight horizontal or vertical bar across the bounds of the view. A bar
+ * can be made of several series stacked end to end, see {@link #setStackBase(LineSeries)}.
+ * <p/>
+ * The position of the bar is calculated when the bounds or gravity change, so each frame only
+ * scales the length of the bar and draws it with a single drawLine call.
+ */
 public class LineSeries extends ChartSeries {
-    private final String TAG = getClass().getSimpleName();
-    private final Path mDrawPath = new Path();
+    /**
+     * Bounds {@link #mLineCross}, {@link #mLineFrom} and {@link #mLineLength} were calculated for
+     */
+    private final RectF mLayoutBounds = new RectF();
     private DecoView.HorizGravity mHorizGravity = DecoView.HorizGravity.GRAVITY_HORIZONTAL_CENTER;
+    /**
+     * Has the cached position of the bar been calculated for the current gravity
+     */
+    private boolean mLayoutValid;
+    /**
+     * Position of the bar across its direction of travel, y for a horizontal bar and x for a
+     * vertical bar
+     */
+    private float mLineCross;
+    /**
+     * Position along the direction of travel at the end of the bar, as a fraction of the length
+     * of the bounds. Updated on each draw so stacked series can start from it
+     */
+    private float mLineEnd;
+    /**
+     * Position along the direction of travel where an empty bar starts
+     */
+    private float mLineFrom;
+    /**
+     * Length of a full bar, negative when the bar runs right to left or bottom to top
+     */
+    private float mLineLength;
+    /**
+     * Series this series is stacked on, or null to start from the edge of the bounds
+     */
+    private LineSeries mStackBase;
     private DecoView.VertGravity mVertGravity = DecoView.VertGravity.GRAVITY_VERTICAL_CENTER;
 
     public LineSeries(@NonNull SeriesItem seriesItem, int totalAngle, int rotateAngle) {
         super(seriesItem, totalAngle, rotateAngle);
-        Log.e(TAG, "LineSeries is experimental. Not all functionality is implemented.");
     }
 
     /**
@@ -48,90 +79,113 @@ public class LineSeries extends ChartSeries {
              */
             int colorOne = mSeriesItem.getSpinClockwise() ? mSeriesItem.getColor() : mSeriesItem.getSecondaryColor();
             int colorTwo = mSeriesItem.getSpinClockwise() ? mSeriesItem.getSecondaryColor() : mSeriesItem.getColor();
-            LinearGradient gradient =
-                    new LinearGradient(mBounds.left, mBounds.top, mBounds.right, mBounds.bottom, colorOne, colorTwo,
-                            Shader.TileMode.CLAMP);
-            mPaint.setShader(gradient);
+            final int[] colors = {colorOne, colorTwo};
+            mPaint.setShader(
+                    ShaderCache.getLinearGradient(mBounds.left, mBounds.top, mBounds.right, mBounds.bottom, colors));
+        }
+    }
+
+    /**
+     * Calculate the position of the bar within the bounds. The bar runs along the full length of
+     * the bounds and is placed across them by the gravity, offset by the inset of the series
+     */
+    private void calcLayout() {
+        mLayoutBounds.set(mBounds);
+        mLayoutValid = true;
+        final boolean reverse = !mSeriesItem.getSpinClockwise();
+        final float insetX = mSeriesItem.getInset() != null ? mSeriesItem.getInset().x : 0;
+        final float insetY = mSeriesItem.getInset() != null ? mSeriesItem.getInset().y : 0;
+        if (isHorizontal()) {
+            mLineFrom = reverse ? mBounds.right : mBounds.left;
+            mLineLength = reverse ? -mBounds.width() : mBounds.width();
+            if (mVertGravity == DecoView.VertGravity.GRAVITY_VERTICAL_TOP) {
+                mLineCross = mBounds.top + insetY;
+            } else if (mVertGravity == DecoView.VertGravity.GRAVITY_VERTICAL_BOTTOM) {
+                mLineCross = mBounds.bottom - insetY;
+            } else {
+                mLineCross = mBounds.centerY() + insetY;
+            }
+        } else {
+            mLineFrom = reverse ? mBounds.bottom : mBounds.top;
+            mLineLength = reverse ? -mBounds.height() : mBounds.height();
+            if (mHorizGravity == DecoView.HorizGravity.GRAVITY_HORIZONTAL_LEFT) {
+                mLineCross = mBounds.left + insetX;
+            } else if (mHorizGravity == DecoView.HorizGravity.GRAVITY_HORIZONTAL_RIGHT) {
+                mLineCross = mBounds.right - insetX;
+            } else {
+                mLineCross = mBounds.centerX() + insetX;
+            }
         }
     }
 
     @Override
     public boolean draw(Canvas canvas, RectF bounds) {
+        final float lineStart = mStackBase != null ? mStackBase.mLineEnd : 0f;
+        float position = isVisible() ? getPositionPercent() : 0f;
+        /* Adjust to show point even when empty */
+        if (isVisible() && mSeriesItem.showPointWhenEmpty() && Math.abs(position) < 0.01f) {
+            position = 0.01f;
+        }
+        // Set before drawing, so a series stacked on this one starts from here even while this
+        // series is drawing an effect
+        mLineEnd = Math.min(lineStart + position, 1f);
         if (super.draw(canvas, bounds)) {
+            drawOverlayEffect(canvas);
             return true;
         }
-        final boolean reverse = !mSeriesItem.getSpinClockwise();
-        float insetX = mSeriesItem.getInset() != null ? mSeriesItem.getInset().x : 0;
-        float insetY = mSeriesItem.getInset() != null ? mSeriesItem.getInset().y : 0;
-        float lineWidth = getSeriesItem().getLineWidth() / 2;
-        float posNow = mPositionCurrentEnd / (getSeriesItem().getMaxValue() - getSeriesItem().getMinValue());
-
-        /* Adjust to show point even when empty */
-        if (this.getSeriesItem().showPointWhenEmpty() && Math.abs(posNow) < 0.01f) {
-            posNow = 0.01f;
+        if (!mLayoutValid || !mLayoutBounds.equals(mBounds)) {
+            calcLayout();
         }
-        final float totalWidth = posNow * (canvas.getWidth() - (2 * lineWidth));
-        final float totalHeight = posNow * (canvas.getHeight() - (2 * lineWidth));
-        float xVal1 = !reverse ? lineWidth : canvas.getWidth() - lineWidth;
-        float yVal1 = !reverse ? lineWidth : canvas.getHeight() - lineWidth;
-        float xVal2 = !reverse ? lineWidth + totalWidth : xVal1 - totalWidth;
-        float yVal2 = !reverse ? lineWidth + totalHeight : yVal1 - totalHeight;
+        final float from = mLineFrom + (lineStart * mLineLength);
+        final float to = mLineFrom + (mLineEnd * mLineLength);
         if (isHorizontal()) {
-            switch (mVertGravity) {
-                case GRAVITY_VERTICAL_TOP:
-                    yVal1 = yVal2 = lineWidth / 2;
-                    yVal1 += insetY;
-                    yVal2 += insetY;
-                    break;
-                case GRAVITY_VERTICAL_BOTTOM:
-                    yVal1 = yVal2 = canvas.getHeight() - lineWidth;
-                    yVal1 -= insetY;
-                    yVal2 -= insetY;
-                    break;
-                default:
-                    Log.w(TAG, "Invalid Gravity set, VERTICAL_CENTER set (" + mVertGravity + ")");
-                case GRAVITY_VERTICAL_CENTER:
-                    yVal1 = yVal2 = canvas.getHeight() / 2;
-                    yVal1 += insetY;
-                    yVal2 += insetY;
-            }
+            canvas.drawLine(from, mLineCross, to, mLineCross, mPaint);
         } else {
-            switch (mHorizGravity) {
-                case GRAVITY_HORIZONTAL_LEFT:
-                    xVal1 = xVal2 = lineWidth;
-                    xVal1 += insetX;
-                    xVal2 += insetX;
-                    break;
-                case GRAVITY_HORIZONTAL_RIGHT:
-                    xVal1 = xVal2 = canvas.getWidth() - lineWidth;
-                    xVal1 -= insetX;
-                    xVal2 -= insetX;
-                    break;
-                default:
-                    Log.w(TAG, "Invalid Gravity set, HORIZONTAL_CENTER set (" + mHorizGravity + ")");
-                case GRAVITY_HORIZONTAL_CENTER:
-                    xVal1 = xVal2 = canvas.getWidth() / 2;
-                    xVal1 += insetX;
-                    xVal2 += insetX;
-            }
+            canvas.drawLine(mLineCross, from, mLineCross, to, mPaint);
         }
-        mDrawPath.reset();
-        mDrawPath.moveTo(xVal1, yVal1);
-        mDrawPath.lineTo(xVal2, yVal2);
-        canvas.drawPath(mDrawPath, mPaint);
+        drawOverlayEffect(canvas);
         return true;
     }
 
+    /**
+     * Includes the draw version of the series this series is stacked on, as it moves the start
+     * of this series
+     */
+    @Override
+    public int getDrawVersion() {
+        return super.getDrawVersion() + (mStackBase != null ? 31 * mStackBase.getDrawVersion() : 0);
+    }
+
     private boolean isHorizontal() {
         return mSeriesItem.getChartStyle() == SeriesItem.ChartStyle.STYLE_LINE_HORIZONTAL;
     }
 
+    /**
+     * A stacked series is only idle while the series it is stacked on is also idle
+     */
+    @Override
+    public boolean isIdle() {
+        return super.isIdle() && (mStackBase == null || mStackBase.isIdle());
+    }
+
     public void setHorizGravity(DecoView.HorizGravity horizGravity) {
         mHorizGravity = horizGravity;
+        mLayoutValid = false;
+    }
+
+    /**
+     * Stack this series on the end of another series, so several series form the segments of a
+     * single bar. The other series must be drawn before this series and run in the same
+     * direction. A hidden base series takes up no length of the bar
+     *
+     * @param stackBase Series this series starts from, or null to start from the edge
+     */
+    public void setStackBase(@Nullable LineSeries stackBase) {
+        mStackBase = stackBase;
     }
 
     public void setVertGravity(DecoView.VertGravity vertGravity) {
         mVertGravity = vertGravity;
+        mLayoutValid = false;
     }
 }
-
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2015 Brent Marriott
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gerwalex.counterimageview.charts;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+
+/**
+ * Particles used by {@link DecoDrawEffect.EffectType#EFFECT_BURST}. The state of every particle
+ * is held in parallel arrays rather than as an object per particle, and is updated in place on
+ * each frame. Particles are split into equal groups, one per color, so each group is drawn with
+ * a single drawPoints call.
+ * <p/>
+ * Buffers are pooled across effect runs and across views, see {@link #obtain()} and
+ * {@link #recycle()}. All access is expected from the UI thread.
+ */
+final class ParticleBuffer {
+    /**
+     * Number of colors particles are drawn in
+     */
+    static final int COLOR_COUNT = 3;
+    /**
+     * Maximum number of buffers kept in the pool
+     */
+    static private final int MAX_POOL_SIZE = 16;
+    /**
+     * Particles created per color
+     */
+    static private final int PARTICLES_PER_COLOR = 20;
+    static private final int PARTICLE_COUNT = PARTICLES_PER_COLOR * COLOR_COUNT;
+    /**
+     * Downward acceleration applied to each particle, in multiples of the radius per unit of
+     * animation progress squared
+     */
+    static private final float GRAVITY = 1.5f;
+    static private final float SPEED_MAX = 1.2f;
+    static private final float SPEED_MIN = 0.4f;
+    static private final ParticleBuffer[] mPool = new ParticleBuffer[MAX_POOL_SIZE];
+    static private final Random mRandom = new Random();
+    static private int mPoolSize;
+    /**
+     * Remaining life of each particle, 1.0 when created and no longer drawn once 0
+     */
+    private final float[] mLife = new float[PARTICLE_COUNT];
+    /**
+     * Rate each particle loses life per unit of animation progress
+     */
+    private final float[] mLifeDecay = new float[PARTICLE_COUNT];
+    /**
+     * Points of the live particles of one color, as passed to drawPoints
+     */
+    private final float[] mPoints = new float[PARTICLES_PER_COLOR * 2];
+    private final float[] mPositionX = new float[PARTICLE_COUNT];
+    private final float[] mPositionY = new float[PARTICLE_COUNT];
+    private final float[] mVelocityX = new float[PARTICLE_COUNT];
+    private final float[] mVelocityY = new float[PARTICLE_COUNT];
+    /**
+     * Progress of the effect at the last update, used to step the particles
+     */
+    private float mLastPercent;
+
+    private ParticleBuffer() {
+    }
+
+    /**
+     * Retrieve a buffer from the pool, or create a new one if the pool is empty
+     *
+     * @return buffer to be initialized with {@link #emit(float)}
+     */
+    @NonNull
+    static ParticleBuffer obtain() {
+        if (mPoolSize > 0) {
+            ParticleBuffer buffer = mPool[--mPoolSize];
+            mPool[mPoolSize] = null;
+            return buffer;
+        }
+        return new ParticleBuffer();
+    }
+
+    /**
+     * Draw the live particles. The positions are relative to the center of the bounds and
+     * scaled by its radius, so the burst follows any change in size of the view
+     *
+     * @param canvas Canvas to draw onto
+     * @param bounds Bounds of the series
+     * @param paint  Paint with the cap and width of the particles. The color is changed
+     * @param colors Color of each group of particles, {@link #COLOR_COUNT} entries
+     * @param alpha  Alpha applied to all particles
+     */
+    void draw(@NonNull Canvas canvas, @NonNull RectF bounds, @NonNull Paint paint, @NonNull int[] colors,
+              int alpha) {
+        final float radius = Math.min(bounds.width(), bounds.height()) / 2;
+        final float centerX = bounds.centerX();
+        final float centerY = bounds.centerY();
+        for (int color = 0; color < COLOR_COUNT; color++) {
+            int count = 0;
+            final int end = (color + 1) * PARTICLES_PER_COLOR;
+            for (int i = color * PARTICLES_PER_COLOR; i < end; i++) {
+                if (mLife[i] > 0) {
+                    mPoints[count++] = centerX + mPositionX[i] * radius;
+                    mPoints[count++] = centerY + mPositionY[i] * radius;
+                }
+            }
+            if (count > 0) {
+                paint.setColor(colors[color]);
+                paint.setAlpha(alpha);
+                canvas.drawPoints(mPoints, 0, count, paint);
+            }
+        }
+    }
+
+    /**
+     * Place all particles on a circle and give each a random outward velocity and lifetime
+     *
+     * @param radius Radius of the circle the particles start on, relative to the radius of the
+     *               series bounds
+     */
+    void emit(float radius) {
+        for (int i = 0; i < PARTICLE_COUNT; i++) {
+            double angle = mRandom.nextFloat() * 2 * Math.PI;
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+            float speed = SPEED_MIN + mRandom.nextFloat() * (SPEED_MAX - SPEED_MIN);
+            mPositionX[i] = cos * radius;
+            mPositionY[i] = sin * radius;
+            mVelocityX[i] = cos * speed;
+            mVelocityY[i] = sin * speed;
+            mLife[i] = 1f;
+            mLifeDecay[i] = 1f + mRandom.nextFloat();
+        }
+        mLastPercent = 0f;
+    }
+
+    /**
+     * Return the buffer to the pool. The buffer must not be used after this call
+     */
+    void recycle() {
+        if (mPoolSize < MAX_POOL_SIZE) {
+            mPool[mPoolSize++] = this;
+        }
+    }
+
+    /**
+     * Step every particle forward to the given progress of the effect
+     *
+     * @param percentComplete progress of the effect (0..1)
+     */
+    void update(float percentComplete) {
+        final float delta = percentComplete - mLastPercent;
+        if (delta <= 0) {
+            return;
+        }
+        mLastPercent = percentComplete;
+        for (int i = 0; i < PARTICLE_COUNT; i++) {
+            if (mLife[i] <= 0) {
+                continue;
+            }
+            mVelocityY[i] += GRAVITY * delta;
+            mPositionX[i] += mVelocityX[i] * delta;
+            mPositionY[i] += mVelocityY[i] * delta;
+            mLife[i] -= mLifeDecay[i] * delta;
+        }
+    }
+}
@@ -16,16 +16,12 @@
 package com.gerwalex.counterimageview.charts;
 
 import android.graphics.Canvas;
-import android.graphics.Path;
+import android.graphics.Paint;
 import android.graphics.RectF;
-import android.graphics.Region;
 import android.graphics.Shader;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 
-import com.gerwalex.counterimageview.DecoView;
-
 import java.util.ArrayList;
 
 public class PieSeries extends ArcSeries {
@@ -41,75 +37,56 @@ public class PieSeries extends ArcSeries {
      */
     @Override
     public boolean draw(Canvas canvas, RectF bounds) {
-        if (super.draw(canvas, bounds)) {
-            return true;
+        if (!super.draw(canvas, bounds)) {
+            drawArc(canvas);
+            drawArcEdgeDetail(canvas);
         }
-        drawArc(canvas);
-        drawArcEdgeDetail(canvas);
+        drawOverlayEffect(canvas);
         return true;
     }
 
     protected void drawArc(@NonNull Canvas canvas) {
-        canvas.drawArc(mBoundsInset, mArcAngleStart, mArcAngleSweep, true, mPaint);
+        drawArcShaded(canvas, true);
     }
 
     /**
-     * Draw the {@link EdgeDetail} for this View. Note that on API 11 - 17 clipPath is only available
-     * if HardwareAcceleration is disable. A function {@link DecoView#enableCompatibilityMode()}
-     * is provided which will disable on affected platforms however this needs to be explicitly
-     * called by the user, otherwise EdgeDetails will not be drawn
+     * Draw the {@link EdgeDetail} for this View without clipping.
+     * <p/>
+     * EDGE_OUTER is drawn as a stroked arc concentric with the pie that covers the outer band of
+     * the pie. EDGE_INNER is drawn as a smaller wedge from the center covering the given ratio
+     * of the radius
      *
      * @param canvas Canvas to draw to
      */
     private void drawArcEdgeDetail(@NonNull Canvas canvas) {
         ArrayList<EdgeDetail> edgeDetailList = getSeriesItem().getEdgeDetail();
-        if (edgeDetailList == null) {
+        if (edgeDetailList == null || !isEdgeDetailEnabled() || mArcAngleSweep == 0) {
             return;
         }
-        for (EdgeDetail edgeDetail : edgeDetailList) {
-            final boolean drawInner = edgeDetail.getEdgeType() == EdgeDetail.EdgeType.EDGE_INNER;
-            if (drawInner) {
-                //TODO: Implement EDGE_INNER for pie
-                Log.w(TAG, "EDGE_INNER Not Yet Implemented for pie chart");
-                continue;
-            }
-            if (edgeDetail.getClipPath() == null) {
-                float inset = (edgeDetail.getRatio() - 0.5f) * mPaint.getStrokeWidth();
-                Path clipPath = new Path();
-                RectF clipRect = new RectF(mBoundsInset);
-                clipRect.inset(inset, inset);
-                clipPath.addOval(clipRect, Path.Direction.CW);
-                edgeDetail.setClipPath(clipPath);
+        final float lineWidth = mPaint.getStrokeWidth();
+        final int colorOld = mPaint.getColor();
+        final Shader shaderOld = mPaint.getShader();
+        final Paint.Style styleOld = mPaint.getStyle();
+        final Paint.Cap capOld = mPaint.getStrokeCap();
+        mPaint.setShader(null);
+        for (int i = 0; i < edgeDetailList.size(); i++) {
+            EdgeDetail edgeDetail = edgeDetailList.get(i);
+            RectF edgeBounds = edgeDetail.getDrawBounds(mBoundsInset, lineWidth, SeriesItem.ChartStyle.STYLE_PIE);
+            mPaint.setColor(edgeDetail.getColor());
+            if (edgeDetail.getEdgeType() == EdgeDetail.EdgeType.EDGE_INNER) {
+                mPaint.setStyle(Paint.Style.FILL);
+                canvas.drawArc(edgeBounds, mArcAngleStart, mArcAngleSweep, true, mPaint);
+            } else if (edgeDetail.getDrawWidth() > 0) {
+                mPaint.setStyle(Paint.Style.STROKE);
+                mPaint.setStrokeCap(Paint.Cap.BUTT);
+                mPaint.setStrokeWidth(edgeDetail.getDrawWidth());
+                canvas.drawArc(edgeBounds, mArcAngleStart, mArcAngleSweep, false, mPaint);
             }
-            //noinspection ConstantConditions
-            drawClippedArc(canvas, edgeDetail.getClipPath(), edgeDetail.getColor(),
-                    drawInner ? Region.Op.INTERSECT : Region.Op.DIFFERENCE);
-        }
-    }
-
-    /**
-     * Draw the {@link EdgeDetail} for this View. Note that on API 11 - 17 clipPath is only available
-     * if HardwareAcceleration is disable. A function {@link DecoView#enableCompatibilityMode()}
-     * is provided which will disable on affected platforms however this needs to be explicitly
-     * called by the user, otherwise EdgeDetails will not be drawn
-     */
-    protected void drawClippedArc(@NonNull Canvas canvas, @NonNull Path path, int color, @NonNull Region.Op combine) {
-        canvas.save();
-        try {
-            canvas.clipPath(path, combine);
-        } catch (UnsupportedOperationException e) {
-            Log.w(TAG,
-                    "clipPath unavailable on API 11 - 17 without disabling hardware acceleration. (EdgeDetail functionality requires clipPath). Call DecoView.enableCompatibilityMode() to enable");
-            canvas.restore();
-            return;
         }
-        int colorOld = mPaint.getColor();
-        Shader shaderOld = mPaint.getShader();
-        mPaint.setColor(color);
-        mPaint.setShader(null);
-        drawArc(canvas);
+        mPaint.setStrokeWidth(lineWidth);
+        mPaint.setStrokeCap(capOld);
+        mPaint.setStyle(styleOld);
         mPaint.setColor(colorOld);
         mPaint.setShader(shaderOld);
-        canvas.restore();
     }
 }
@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2015 Brent Marriott
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gerwalex.counterimageview.charts;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.view.animation.Interpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.gerwalex.counterimageview.DecoView;
+import com.nineoldandroids.animation.Animator;
+import com.nineoldandroids.animation.AnimatorListenerAdapter;
+import com.nineoldandroids.animation.ValueAnimator;
+
+/**
+ * Large number of thin concentric rings drawn by a {@link DecoView}, for example one ring for
+ * each member of a team leaderboard. Unlike a {@link ChartSeries} per ring, the value and color
+ * of every ring are held in primitive arrays, the inset of each ring is calculated from its
+ * index, and all rings animate from a single ValueAnimator.
+ * <p/>
+ * Rings are drawn from the outside in, with ring 0 outermost. The arcs of all rings sharing a
+ * color are collected into one Path, so the whole set is drawn with one draw call per color.
+ * The paths are only built when the bounds or the set change. While the rings animate each
+ * ring is drawn as an arc with its current sweep instead, so no path is rebuilt per frame.
+ * <p/>
+ * Add the set to a view with {@link DecoView#setRingSet(RingSet)}.
+ */
+@SuppressWarnings("unused")
+public class RingSet {
+    /**
+     * Index in the color palette of each ring
+     */
+    private final int[] mColorIndex;
+    private final float mMaxValue;
+    private final float mMinValue;
+    /**
+     * Work rect for the bounds of each ring
+     */
+    private final RectF mOval = new RectF();
+    private final Paint mPaint = new Paint();
+    /**
+     * Bounds the paths were last built for
+     */
+    private final RectF mPathBounds = new RectF();
+    /**
+     * Background track drawn behind all rings
+     */
+    private final Path mTrackPath = new Path();
+    /**
+     * Current value of each ring
+     */
+    private final float[] mValues;
+    /**
+     * Value of each ring at the start of the current animation
+     */
+    private final float[] mValuesFrom;
+    /**
+     * Value of each ring at the end of the current animation
+     */
+    private final float[] mValuesTo;
+    /**
+     * Animation frames received while rendering at
+     * {@link DecoView.RenderQuality#QUALITY_SKIP_EFFECT_FRAMES}
+     */
+    private int mAnimationFrame;
+    /**
+     * Colors available to the rings
+     */
+    private int[] mColors = {0xFF000000};
+    /**
+     * Has the current animation been paused
+     */
+    private boolean mIsPaused;
+    private float mLineWidth = 2f;
+    private RingSetListener mListener;
+    private int mPathRotateAngle;
+    private int mPathTotalAngle;
+    /**
+     * Arcs of the rings, one path per color of the palette
+     */
+    private Path[] mPaths;
+    /**
+     * Set when the paths need to be rebuilt before the next draw
+     */
+    private boolean mPathsDirty = true;
+    /**
+     * Elapsed play time of the animation at the point it was paused
+     */
+    private long mPausedPlayTime;
+    private DecoView.RenderQuality mRenderQuality = DecoView.RenderQuality.QUALITY_FULL;
+    /**
+     * Number of rings that fit within the bounds the paths were built for
+     */
+    private int mRingsVisible;
+    private float mSpacing = 1f;
+    private int mTrackColor;
+    private ValueAnimator mValueAnimator;
+
+    /**
+     * Create a set of rings, all with the minimum value
+     *
+     * @param ringCount Number of rings
+     * @param minValue  Value shown as an empty ring
+     * @param maxValue  Value shown as a complete ring
+     */
+    public RingSet(int ringCount, float minValue, float maxValue) {
+        if (ringCount <= 0) {
+            throw new IllegalArgumentException("RingSet must contain at least one ring");
+        }
+        if (maxValue <= minValue) {
+            throw new IllegalArgumentException("Max value must be greater than min value");
+        }
+        mMinValue = minValue;
+        mMaxValue = maxValue;
+        mValues = new float[ringCount];
+        mValuesFrom = new float[ringCount];
+        mValuesTo = new float[ringCount];
+        mColorIndex = new int[ringCount];
+        for (int i = 0; i < ringCount; i++) {
+            mValues[i] = minValue;
+        }
+        mPaint.setAntiAlias(true);
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setStrokeCap(Paint.Cap.BUTT);
+        setColors(mColors);
+    }
+
+    /**
+     * Animate every ring from its current value to a new value
+     *
+     * @param values       New value of each ring, one entry per ring
+     * @param duration     Duration of the animation in milliseconds
+     * @param interpolator Interpolator to apply, or null for linear
+     */
+    public void animateTo(@NonNull float[] values, long duration, @Nullable Interpolator interpolator) {
+        if (values.length != mValues.length) {
+            throw new IllegalArgumentException("Expected " + mValues.length + " values");
+        }
+        cancelAnimation();
+        System.arraycopy(mValues, 0, mValuesFrom, 0, mValues.length);
+        System.arraycopy(values, 0, mValuesTo, 0, mValues.length);
+        if (mValueAnimator == null) {
+            mValueAnimator = ValueAnimator.ofFloat(0, 1.0f);
+            mValueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator valueAnimator) {
+                    if (mIsPaused) {
+                        return;
+                    }
+                    float percent = valueAnimator.getAnimatedFraction();
+                    for (int i = 0; i < mValues.length; i++) {
+                        mValues[i] = mValuesFrom[i] + (mValuesTo[i] - mValuesFrom[i]) * percent;
+                    }
+                    if (mRenderQuality == DecoView.RenderQuality.QUALITY_SKIP_EFFECT_FRAMES &&
+                            (mAnimationFrame++ & 1) != 0) {
+                        // Under load only every second frame of the animation is redrawn
+                        return;
+                    }
+                    // The paths are not used while animating, so they are left to be rebuilt at the end
+                    if (mListener != null) {
+                        mListener.onRingSetUpdate();
+                    }
+                }
+            });
+            mValueAnimator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    // Also reached when paused or cancelled. The rings are drawn from the paths again
+                    invalidate();
+                }
+            });
+        }
+        mAnimationFrame = 0;
+        mValueAnimator.setDuration(duration);
+        mValueAnimator.setInterpolator(interpolator);
+        mValueAnimator.start();
+    }
+
+    private void buildPaths(@NonNull RectF bounds, int totalAngle, int rotateAngle) {
+        mPathBounds.set(bounds);
+        mPathTotalAngle = totalAngle;
+        mPathRotateAngle = rotateAngle;
+        mPathsDirty = false;
+        mRingsVisible = 0;
+        for (Path path : mPaths) {
+            path.rewind();
+        }
+        mTrackPath.rewind();
+        final float pitch = mLineWidth + mSpacing;
+        for (int i = 0; i < mValues.length; i++) {
+            float inset = i * pitch;
+            if (inset * 2 >= Math.min(bounds.width(), bounds.height())) {
+                // No room for any further rings
+                break;
+            }
+            mRingsVisible++;
+            mOval.set(bounds);
+            mOval.inset(inset, inset);
+            if (mTrackColor != 0) {
+                mTrackPath.addArc(mOval, rotateAngle, totalAngle);
+            }
+            float sweep = calcSweep(i, totalAngle);
+            if (sweep > 0) {
+                mPaths[mColorIndex[i]].addArc(mOval, rotateAngle, sweep);
+            }
+        }
+    }
+
+    /**
+     * Calculate the sweep of one ring for its current value
+     *
+     * @param ring       Index of the ring
+     * @param totalAngle Total angle of the view in degrees
+     * @return sweep in degrees
+     */
+    private float calcSweep(int ring, int totalAngle) {
+        final float percent = (mValues[ring] - mMinValue) / (mMaxValue - mMinValue);
+        return Math.min(Math.max(percent, 0f), 1.0f) * totalAngle;
+    }
+
+    /**
+     * Stop any animation in progress, leaving each ring at its current value
+     */
+    public void cancelAnimation() {
+        mIsPaused = false;
+        if (mValueAnimator != null) {
+            mValueAnimator.cancel();
+        }
+    }
+
+    /**
+     * Draw the rings inside the given bounds. The line of ring 0 is centered on the bounds
+     *
+     * @param canvas      Canvas to draw onto
+     * @param bounds      Bounds of the view
+     * @param totalAngle  Total angle of the view in degrees
+     * @param rotateAngle Angle the rings start from
+     */
+    public void draw(@NonNull Canvas canvas, @NonNull RectF bounds, int totalAngle, int rotateAngle) {
+        if (mPathsDirty || !mPathBounds.equals(bounds) || mPathTotalAngle != totalAngle ||
+                mPathRotateAngle != rotateAngle) {
+            buildPaths(bounds, totalAngle, rotateAngle);
+        }
+        mPaint.setStrokeWidth(mLineWidth);
+        if (mTrackColor != 0) {
+            mPaint.setColor(mTrackColor);
+            canvas.drawPath(mTrackPath, mPaint);
+        }
+        if (mValueAnimator != null && mValueAnimator.isRunning()) {
+            // Values change on every frame, so draw each ring with its current sweep
+            final float pitch = mLineWidth + mSpacing;
+            for (int i = 0; i < mRingsVisible; i++) {
+                float sweep = calcSweep(i, totalAngle);
+                if (sweep > 0) {
+                    mOval.set(bounds);
+                    mOval.inset(i * pitch, i * pitch);
+                    mPaint.setColor(mColors[mColorIndex[i]]);
+                    canvas.drawArc(mOval, rotateAngle, sweep, false, mPaint);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < mPaths.length; i++) {
+            mPaint.setColor(mColors[i]);
+            canvas.drawPath(mPaths[i], mPaint);
+        }
+    }
+
+    public int getRingCount() {
+        return mValues.length;
+    }
+
+    public float getValue(int ring) {
+        return mValues[ring];
+    }
+
+    public float getLineWidth() {
+        return mLineWidth;
+    }
+
+    private void invalidate() {
+        mPathsDirty = true;
+        if (mListener != null) {
+            mListener.onRingSetUpdate();
+        }
+    }
+
+    /**
+     * Pause the animation in progress, see {@link DecoView#pauseAll()}
+     *
+     * @return true if an animation was paused
+     */
+    public boolean pause() {
+        if (mValueAnimator != null && mValueAnimator.isRunning() && !mIsPaused) {
+            mPausedPlayTime = mValueAnimator.getCurrentPlayTime();
+            mIsPaused = true;
+            mValueAnimator.cancel();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resume an animation paused with {@link #pause()} from the same position
+     *
+     * @return true if the animation resumed
+     */
+    public boolean resume() {
+        if (!mIsPaused) {
+            return false;
+        }
+        // Starting the animator moves it back to the beginning, so updates are ignored until it
+        // has been moved to the position it was paused at
+        mValueAnimator.start();
+        mIsPaused = false;
+        mValueAnimator.setCurrentPlayTime(mPausedPlayTime);
+        return true;
+    }
+
+    /**
+     * Set the color of one ring
+     *
+     * @param ring       Index of the ring
+     * @param colorIndex Index of the color in the palette, see {@link #setColors(int[])}
+     */
+    public void setColorIndex(int ring, int colorIndex) {
+        if (colorIndex < 0 || colorIndex >= mColors.length) {
+            throw new IllegalArgumentException("Color index must be in the range 0.." + (mColors.length - 1));
+        }
+        mColorIndex[ring] = colorIndex;
+        invalidate();
+    }
+
+    /**
+     * Set the palette of colors used by the rings. Rings reference a color by its index in the
+     * palette, and all rings of one color are drawn together
+     *
+     * @param colors Colors of the palette
+     */
+    public void setColors(@NonNull int[] colors) {
+        if (colors.length == 0) {
+            throw new IllegalArgumentException("At least one color is required");
+        }
+        mColors = colors.clone();
+        mPaths = new Path[mColors.length];
+        for (int i = 0; i < mPaths.length; i++) {
+            mPaths[i] = new Path();
+        }
+        for (int i = 0; i < mColorIndex.length; i++) {
+            mColorIndex[i] = Math.min(mColorIndex[i], mColors.length - 1);
+        }
+        invalidate();
+    }
+
+    public void setLineWidth(float lineWidth) {
+        mLineWidth = lineWidth;
+        invalidate();
+    }
+
+    /**
+     * Set the listener notified when the rings need to be redrawn. This is set by the
+     * {@link DecoView} the set is added to
+     *
+     * @param listener listener to notify, or null
+     */
+    public void setListener(@Nullable RingSetListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Set the quality the rings are rendered at, see {@link DecoView#setFrameBudget(float)}.
+     * Anti-aliasing is dropped at {@link DecoView.RenderQuality#QUALITY_NO_ANTI_ALIAS} and
+     * alternate animation frames are skipped at
+     * {@link DecoView.RenderQuality#QUALITY_SKIP_EFFECT_FRAMES}
+     *
+     * @param renderQuality quality to render at
+     */
+    public void setRenderQuality(@NonNull DecoView.RenderQuality renderQuality) {
+        mRenderQuality = renderQuality;
+        mPaint.setAntiAlias(renderQuality.ordinal() < DecoView.RenderQuality.QUALITY_NO_ANTI_ALIAS.ordinal());
+        invalidate();
+    }
+
+    /**
+     * Set the gap between adjacent rings
+     *
+     * @param spacing Gap in pixels
+     */
+    public void setSpacing(float spacing) {
+        mSpacing = spacing;
+        invalidate();
+    }
+
+    /**
+     * Set the color of the track drawn behind every ring. Pass 0 to draw no track
+     *
+     * @param trackColor Color of the track
+     */
+    public void setTrackColor(int trackColor) {
+        mTrackColor = trackColor;
+        invalidate();
+    }
+
+    /**
+     * Set the value of one ring without animation
+     *
+     * @param ring  Index of the ring
+     * @param value New value
+     */
+    public void setValue(int ring, float value) {
+        mValues[ring] = value;
+        invalidate();
+    }
+
+    public interface RingSetListener {
+        void onRingSetUpdate();
+    }
+}
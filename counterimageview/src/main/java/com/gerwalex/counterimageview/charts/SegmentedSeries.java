@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2015 Brent Marriott
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gerwalex.counterimageview.charts;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Donut drawn as consecutive segments, each with its own value and color, from a single
+ * {@link SeriesItem}. All segments are revealed by the one animation of the series, so a
+ * breakdown of hundreds of values needs no more than one series, paint and animator.
+ * <p/>
+ * The start and sweep of each segment are calculated when the bounds or segments change.
+ * Segments shorter than {@link #MIN_SEGMENT_LENGTH} are merged with the segments following
+ * them and drawn in the color of the largest segment merged. Each frame draws the segments
+ * within the current arc in a single pass over these arrays.
+ * <p/>
+ * Created by {@link com.gerwalex.counterimageview.DecoView} for donut series built with
+ * {@link SeriesItem.Builder#setSegments(float[], int[])}
+ */
+public class SegmentedSeries extends LineArcSeries {
+    /**
+     * Shortest arc, in pixels, drawn for a segment. Shorter segments would not be visible
+     */
+    static private final float MIN_SEGMENT_LENGTH = 2f;
+    /**
+     * Bounds the segments were last calculated for
+     */
+    private final RectF mLayoutBounds = new RectF();
+    /**
+     * Has the layout of the segments been calculated
+     */
+    private boolean mLayoutValid;
+    /**
+     * Version of the series item the segments were last calculated for
+     */
+    private int mLayoutVersion;
+    /**
+     * Color each segment is drawn in
+     */
+    private int[] mSegmentColor = new int[0];
+    /**
+     * Number of segments to draw, after merging short segments
+     */
+    private int mSegmentCount;
+    /**
+     * Degrees from the start of the arc to the start of each segment
+     */
+    private float[] mSegmentStart = new float[0];
+    /**
+     * Degrees swept by each segment
+     */
+    private float[] mSegmentSweep = new float[0];
+
+    public SegmentedSeries(@NonNull SeriesItem seriesItem, int totalAngle, int rotateAngle) {
+        super(seriesItem, totalAngle, rotateAngle);
+    }
+
+    /**
+     * Add a segment to the layout
+     *
+     * @param start Degrees from the start of the arc
+     * @param sweep Degrees swept
+     * @param color Color of the segment
+     */
+    private void addSegment(float start, float sweep, int color) {
+        mSegmentStart[mSegmentCount] = start;
+        mSegmentSweep[mSegmentCount] = sweep;
+        mSegmentColor[mSegmentCount] = color;
+        mSegmentCount++;
+    }
+
+    /**
+     * Calculate the start and sweep of each segment for the current bounds. Consecutive
+     * segments are grouped until the group is long enough to be visible
+     */
+    private void calcSegments() {
+        mLayoutBounds.set(mBoundsInset);
+        mLayoutVersion = mSeriesItem.getVersion();
+        mLayoutValid = true;
+        mSegmentCount = 0;
+        final float[] values = mSeriesItem.getSegmentValues();
+        final int[] colors = mSeriesItem.getSegmentColors();
+        if (values == null || colors == null) {
+            return;
+        }
+        if (mSegmentStart.length < values.length) {
+            mSegmentStart = new float[values.length];
+            mSegmentSweep = new float[values.length];
+            mSegmentColor = new int[values.length];
+        }
+        final float radius = Math.min(mBoundsInset.width(), mBoundsInset.height()) / 2;
+        final float minSweep = radius > 0 ? (float) Math.toDegrees(MIN_SEGMENT_LENGTH / radius) : 0;
+        final float scale = mAngleSweep / (mSeriesItem.getMaxValue() - mSeriesItem.getMinValue());
+        float position = 0;
+        float groupStart = 0;
+        float groupLargest = -1;
+        int groupColor = 0;
+        for (int i = 0; i < values.length; i++) {
+            final float sweep = Math.max(values[i], 0) * scale;
+            if (sweep > groupLargest) {
+                groupLargest = sweep;
+                groupColor = colors[i];
+            }
+            position += sweep;
+            if (position > groupStart && position - groupStart >= minSweep) {
+                addSegment(groupStart, position - groupStart, groupColor);
+                groupStart = position;
+                groupLargest = -1;
+            }
+        }
+        if (position > groupStart) {
+            // Remaining segments are too short to be seen on their own
+            if (mSegmentCount > 0) {
+                mSegmentSweep[mSegmentCount - 1] += position - groupStart;
+            } else {
+                addSegment(groupStart, position - groupStart, groupColor);
+            }
+        }
+    }
+
+    /**
+     * Draw the part of each segment within the current arc
+     *
+     * @param canvas Canvas to draw onto
+     */
+    @Override
+    protected void drawArc(@NonNull Canvas canvas) {
+        if (mArcAngleSweep == 0) {
+            return;
+        }
+        if (!mLayoutValid || mLayoutVersion != mSeriesItem.getVersion() || !mLayoutBounds.equals(mBoundsInset)) {
+            calcSegments();
+        }
+        drawShadow(canvas, false);
+        final float direction = mSeriesItem.getSpinClockwise() ? 1 : -1;
+        // The start of a point is wrapped to 0..360, so its offset is taken from the unwrapped sweep
+        final float from = mSeriesItem.getDrawAsPoint() ? (calcArcSweep() - getMinSweepAngle()) * direction :
+                (mArcAngleStart - mAngleStart) * direction;
+        final float to = from + Math.abs(mArcAngleSweep);
+        final int colorOld = mPaint.getColor();
+        final Shader shaderOld = mPaint.getShader();
+        final Paint.Cap capOld = mPaint.getStrokeCap();
+        final int alpha = mPaint.getAlpha();
+        mPaint.setShader(null);
+        mPaint.setStrokeCap(Paint.Cap.BUTT);
+        for (int i = 0; i < mSegmentCount; i++) {
+            final float start = Math.max(mSegmentStart[i], from);
+            final float end = Math.min(mSegmentStart[i] + mSegmentSweep[i], to);
+            if (start >= to) {
+                break;
+            }
+            if (end > start) {
+                mPaint.setColor(mSegmentColor[i]);
+                mPaint.setAlpha(Color.alpha(mSegmentColor[i]) * alpha / 255);
+                canvas.drawArc(mBoundsInset, mAngleStart + start * direction, (end - start) * direction, false,
+                        mPaint);
+            }
+        }
+        mPaint.setStrokeCap(capOld);
+        mPaint.setShader(shaderOld);
+        mPaint.setColor(colorOld);
+    }
+
+    /**
+     * Segments each need their own color, so can not be drawn as part of a batch
+     */
+    @Override
+    protected boolean isBatchable() {
+        return false;
+    }
+}
@@ -111,6 +111,14 @@ public class SeriesItem {
      * Provides optional callback functionality on progress update of animation
      */
     private ArrayList<SeriesItemListener> mListeners;
+    /**
+     * Color of each segment of a segmented donut, see {@link Builder#setSegments(float[], int[])}
+     */
+    private int[] mSegmentColors;
+    /**
+     * Value of each segment of a segmented donut
+     */
+    private float[] mSegmentValues;
     /**
      * Label for the data series
      */
@@ -123,10 +131,15 @@ public class SeriesItem {
      * Set the shadow size for the series. This is drawn as a fade around the series that goes from
      * the color set mShadowColor and fades for mShadowSize pixels until it is transparent
      * <p>
-     * IMPORTANT: If you set this you need to call DecoView.disableHardwareAccelerationForDecoView()
-     * as drawing of this shadow cannot be done with hardware acceleration enabled
+     * Arc series draw the shadow from a pre-rendered mask, which works with hardware
+     * acceleration. A {@link LineSeries} draws it with a paint shadow layer, which requires
+     * DecoView.disableHardwareAccelerationForDecoView() before API 28
      */
     private float mShadowSize;
+    /**
+     * Incremented whenever an attribute that affects drawing is changed
+     */
+    private int mVersion;
 
     private SeriesItem(Builder builder) {
         mColor = builder.mColor;
@@ -148,6 +161,20 @@ public class SeriesItem {
         mSeriesLabel = builder.mSeriesLabel;
         mShadowSize = builder.mShadowSize;
         mShadowColor = builder.mShadowColor;
+        mSegmentValues = builder.mSegmentValues;
+        mSegmentColors = builder.mSegmentColors;
+    }
+
+    /**
+     * Check the segments of a segmented donut are valid
+     *
+     * @param values Value of each segment
+     * @param colors Color of each segment
+     */
+    static private void checkSegments(@NonNull float[] values, @NonNull int[] colors) {
+        if (values.length != colors.length) {
+            throw new IllegalArgumentException("Each segment requires one value and one color");
+        }
     }
 
     /**
@@ -163,6 +190,7 @@ public class SeriesItem {
     }
 
     public void addEdgeDetail(@Nullable EdgeDetail edgeDetail) {
+        mVersion++;
         if (edgeDetail == null) {
             mEdgeDetail = null;
             return;
@@ -183,6 +211,7 @@ public class SeriesItem {
 
     public void setColor(int color) {
         mColor = color;
+        mVersion++;
     }
 
     public boolean getDrawAsPoint() {
@@ -218,6 +247,7 @@ public class SeriesItem {
 
     public void setLineWidth(float lineWidth) {
         mLineWidth = lineWidth;
+        mVersion++;
     }
 
     ArrayList<SeriesItemListener> getListeners() {
@@ -242,6 +272,45 @@ public class SeriesItem {
 
     public void setSecondaryColor(int color) {
         mColorSecondary = color;
+        mVersion++;
+    }
+
+    /**
+     * Retrieve the color of each segment. The array is owned by the item and must not be modified
+     *
+     * @return colors, or null if the item is not segmented
+     */
+    @Nullable
+    public int[] getSegmentColors() {
+        return mSegmentColors;
+    }
+
+    public int getSegmentCount() {
+        return mSegmentValues != null ? mSegmentValues.length : 0;
+    }
+
+    /**
+     * Retrieve the value of each segment. The array is owned by the item and must not be modified
+     *
+     * @return values, or null if the item is not segmented
+     */
+    @Nullable
+    public float[] getSegmentValues() {
+        return mSegmentValues;
+    }
+
+    /**
+     * Replace the segments of a segmented donut. This only applies to an item that was built
+     * with segments, see {@link Builder#setSegments(float[], int[])}
+     *
+     * @param values Value of each segment
+     * @param colors Color of each segment
+     */
+    public void setSegments(@NonNull float[] values, @NonNull int[] colors) {
+        checkSegments(values, colors);
+        mSegmentValues = values.clone();
+        mSegmentColors = colors.clone();
+        mVersion++;
     }
 
     public SeriesLabel getSeriesLabel() {
@@ -258,6 +327,7 @@ public class SeriesItem {
 
     public void setShadowColor(int shadowColor) {
         mShadowColor = shadowColor;
+        mVersion++;
     }
 
     public float getShadowSize() {
@@ -266,6 +336,7 @@ public class SeriesItem {
 
     public void setShadowSize(float shadowSize) {
         mShadowSize = shadowSize;
+        mVersion++;
     }
 
     public boolean getSpinClockwise() {
@@ -276,6 +347,16 @@ public class SeriesItem {
         return mSpinDuration;
     }
 
+    /**
+     * Version of the drawing attributes. This changes whenever the color, line width, shadow or
+     * edge detail of the item is altered
+     *
+     * @return current version
+     */
+    int getVersion() {
+        return mVersion;
+    }
+
     public boolean showPointWhenEmpty() {
         return mShowPointWhenEmpty;
     }
@@ -310,6 +391,8 @@ public class SeriesItem {
         private float mMaxValue = 100f;
         private float mMinValue;
         private boolean mRoundCap = true;
+        private int[] mSegmentColors;
+        private float[] mSegmentValues;
         private SeriesLabel mSeriesLabel;
         private int mShadowColor = Color.BLACK;
         private float mShadowSize = 0f;
@@ -399,6 +482,25 @@ public class SeriesItem {
             return this;
         }
 
+        /**
+         * Draw the donut as consecutive segments, each with its own value and color, rather than
+         * adding one series per segment. The segments start at the minimum value of the range
+         * and are revealed as the position of the series moves, so moving to the sum of the
+         * values shows every segment. Segments too short to see are merged with their
+         * neighbours. Segments are drawn with square ends and faded with the alpha of the
+         * series color
+         *
+         * @param values Value of each segment
+         * @param colors Color of each segment
+         * @return Builder
+         */
+        public Builder setSegments(@NonNull float[] values, @NonNull int[] colors) {
+            checkSegments(values, colors);
+            mSegmentValues = values.clone();
+            mSegmentColors = colors.clone();
+            return this;
+        }
+
         public Builder setSeriesLabel(@Nullable SeriesLabel seriesLabel) {
             mSeriesLabel = seriesLabel;
             return this;
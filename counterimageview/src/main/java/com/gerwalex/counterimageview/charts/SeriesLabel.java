@@ -51,13 +51,42 @@ public class SeriesLabel {
     private final int mColorText;
     private final float mFontSize;
     private final Typeface mTypeface;
+    /**
+     * Should the text be drawn from a {@link GlyphAtlas} rather than by the text pipeline
+     */
+    private final boolean mUseGlyphAtlas;
     private final boolean mVisible;
+    /**
+     * Precompiled label, used to format the text without allocating on each draw
+     */
+    private LabelFormat mFormat;
+    /**
+     * Atlas for the typeface and size of the text, when enabled
+     */
+    private GlyphAtlas mGlyphAtlas;
+    /**
+     * Angle of the last label position, as a percentage of the full circle. The unit vector for
+     * the angle is only recalculated when this changes
+     */
+    private float mAngle = Float.NaN;
+    /**
+     * Cosine of {@link #mAngle}
+     */
+    private float mAngleCos;
+    /**
+     * Sine of {@link #mAngle}
+     */
+    private float mAngleSin;
     private String mLabel;
     private Paint mPaintBack;
     private Paint mPaintText;
     private Rect mTextBounds;
     private float mTextCenter;
     private RectF mTextDraw;
+    /**
+     * Number of characters of formatted text from the last layout
+     */
+    private int mTextLength;
 
     static public SeriesLabel createLabel(String label) {
         return new Builder(label).build();
@@ -74,18 +103,67 @@ public class SeriesLabel {
         mColorBack = builder.mColorBack;
         mTypeface = builder.mTypeface;
         mFontSize = builder.mFontSize;
+        mUseGlyphAtlas = builder.mUseGlyphAtlas;
         recalcLayout();
     }
 
     public RectF draw(@NonNull Canvas canvas, @NonNull RectF rect, float percentAngle, float percentComplete,
                       float positionValue) {
+        RectF textDraw = layout(canvas, rect, percentAngle, percentComplete, positionValue);
+        if (textDraw != null) {
+            drawLayout(canvas);
+        }
+        return textDraw;
+    }
+
+    /**
+     * Draw the label at the position calculated by the last call to
+     * {@link #layout(Canvas, RectF, float, float, float)}. The bounds returned by that call may
+     * be moved before drawing, for example to avoid overlapping another label
+     *
+     * @param canvas Canvas to draw onto
+     */
+    public void drawLayout(@NonNull Canvas canvas) {
+        canvas.drawRoundRect(mTextDraw, 10f, 10f, mPaintBack);
+        final float xVal = mTextDraw.centerX();
+        final float yVal = mTextDraw.centerY() - mTextCenter;
+        if (mUseGlyphAtlas) {
+            if (mGlyphAtlas == null) {
+                mGlyphAtlas = GlyphAtlas.obtain(mPaintText);
+            }
+            if (mGlyphAtlas.drawText(canvas, mFormat.getText(), 0, mTextLength, xVal, yVal, mPaintText)) {
+                return;
+            }
+        }
+        canvas.drawText(mFormat.getText(), 0, mTextLength, xVal, yVal, mPaintText);
+    }
+
+    /**
+     * Calculate the position and text of the label without drawing it
+     *
+     * @param canvas          Canvas the label will be drawn onto
+     * @param rect            Bounds of the series
+     * @param percentAngle    Position of the label around the series (0..1)
+     * @param percentComplete Percentage the series is filled (0..1)
+     * @param positionValue   Current value of the series
+     * @return bounds of the label, or null if the label is not visible. The bounds are reused
+     * for each call
+     */
+    @Nullable
+    public RectF layout(@NonNull Canvas canvas, @NonNull RectF rect, float percentAngle, float percentComplete,
+                        float positionValue) {
         if (!mVisible) {
             return null;
         }
+        if (percentAngle != mAngle) {
+            mAngle = percentAngle;
+            double radians = Math.toRadians((360f * percentAngle) - 90);
+            mAngleCos = (float) Math.cos(radians);
+            mAngleSin = (float) Math.sin(radians);
+        }
         float radius = rect.width() / 2;
-        float radians = ((360f * percentAngle) - 90) * (float) (Math.PI / 180f);
-        float xVal = (float) Math.cos(radians) * radius + rect.centerX();
-        float yVal = (float) Math.sin(radians) * radius + rect.centerY();
+        float xVal = mAngleCos * radius + rect.centerX();
+        float yVal = mAngleSin * radius + rect.centerY();
         final float halfWidth = (mTextBounds.width() / 2) + mBufferX;
         final float halfHeight = (mTextBounds.height() / 2) + mBufferY;
         if (0 > xVal - halfWidth) {
@@ -101,24 +179,10 @@ public class SeriesLabel {
             yVal = canvas.getHeight() - halfHeight;
         }
         mTextDraw.set(xVal - halfWidth, yVal - halfHeight, xVal + halfWidth, yVal + halfHeight);
-        canvas.drawRoundRect(mTextDraw, 10f, 10f, mPaintBack);
-        yVal -= mTextCenter;
-        canvas.drawText(getDisplayString(percentComplete, positionValue), xVal, yVal, mPaintText);
+        mTextLength = mFormat.format(percentComplete, positionValue);
         return mTextDraw;
     }
 
-    private String getDisplayString(float percentComplete, float positionValue) {
-        // Check if we have dynamically generated text
-        if (mLabel.contains("%%")) {
-            // We found a percentage symbol so we insert a percentage
-            return String.format(mLabel, percentComplete * 100f);
-        } else if (mLabel.contains("%")) {
-            return String.format(mLabel, positionValue);
-        }
-        // Static label
-        return mLabel;
-    }
-
     private void recalcLayout() {
         if (mPaintBack == null) {
             mPaintBack = new Paint();
@@ -136,6 +200,7 @@ public class SeriesLabel {
             }
         }
         if (mTextBounds == null) {
+            mFormat = new LabelFormat(mLabel);
             mTextBounds = new Rect();
             mPaintText.getTextBounds(mLabel, 0, mLabel.length(), mTextBounds);
             mTextDraw = new RectF();
@@ -155,6 +220,7 @@ public class SeriesLabel {
         private int mColorText = Color.parseColor("#FFFFFFFF");
         private float mFontSize = 16;
         private Typeface mTypeface;
+        private boolean mUseGlyphAtlas;
         private boolean mVisible = true;
 
         public Builder(@NonNull String labelText) {
@@ -185,6 +251,19 @@ public class SeriesLabel {
             return this;
         }
 
+        /**
+         * Draw the label from a glyph atlas shared by all labels with the same typeface and
+         * size. Recommended for labels with a value that animates, as the glyphs are only
+         * rasterized once rather than on every frame
+         *
+         * @param useGlyphAtlas true to draw using the atlas
+         * @return this builder
+         */
+        public Builder setUseGlyphAtlas(boolean useGlyphAtlas) {
+            mUseGlyphAtlas = useGlyphAtlas;
+            return this;
+        }
+
         public Builder setVisible(boolean visible) {
             mVisible = visible;
             return this;
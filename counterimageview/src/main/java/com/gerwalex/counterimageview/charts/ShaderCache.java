@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2015 Brent Marriott
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gerwalex.counterimageview.charts;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Process wide cache of the gradient shaders used by the chart series. Identical rings, such as
+ * the same two-tone ring shown in each row of a list, share one native shader rather than
+ * creating a new one on every bounds change or reset.
+ * <p/>
+ * Shaders returned from the cache are shared and must not be modified by the caller.
+ * <p/>
+ * All access is expected from the UI thread.
+ */
+@SuppressWarnings("unused")
+public class ShaderCache {
+    /**
+     * Maximum number of shaders held in the cache
+     */
+    static private final int MAX_ENTRIES = 32;
+    static private final LruCache<Key, Shader> mCache = new LruCache<>(MAX_ENTRIES);
+    /**
+     * Reusable key used to look up the cache without allocating
+     */
+    static private final Key mProbe = new Key();
+    static private boolean mRegistered;
+
+    private ShaderCache() {
+    }
+
+    /**
+     * Remove all shaders from the cache, including the pre-rendered shadows
+     */
+    static public void clear() {
+        mCache.evictAll();
+        ShadowCache.clear();
+    }
+
+    /**
+     * Retrieve a linear gradient running from (x0, y0) to (x1, y1)
+     *
+     * @param x0     x position of the start of the gradient
+     * @param y0     y position of the start of the gradient
+     * @param x1     x position of the end of the gradient
+     * @param y1     y position of the end of the gradient
+     * @param colors Colors of the gradient
+     * @return Shared shader
+     */
+    static public Shader getLinearGradient(float x0, float y0, float x1, float y1, @NonNull int[] colors) {
+        mProbe.set(Key.TYPE_LINEAR, x0, y0, x1, y1, colors, null);
+        Shader shader = mCache.get(mProbe);
+        if (shader == null) {
+            shader = new LinearGradient(x0, y0, x1, y1, colors, null, Shader.TileMode.CLAMP);
+            mCache.put(mProbe.copy(), shader);
+        }
+        return shader;
+    }
+
+    /**
+     * Retrieve a sweep gradient around the center point, rotated by the given angle
+     *
+     * @param centerX   x position of the center
+     * @param centerY   y position of the center
+     * @param colors    Colors of the gradient
+     * @param positions Relative position of each color, or null for even spacing
+     * @param rotation  Degrees to rotate the gradient around the center
+     * @return Shared shader
+     */
+    static public Shader getSweepGradient(float centerX, float centerY, @NonNull int[] colors,
+                                          @Nullable float[] positions, float rotation) {
+        mProbe.set(Key.TYPE_SWEEP, centerX, centerY, rotation, 0, colors, positions);
+        Shader shader = mCache.get(mProbe);
+        if (shader == null) {
+            shader = new SweepGradient(centerX, centerY, colors, positions);
+            if (rotation != 0) {
+                Matrix rotationMatrix = new Matrix();
+                rotationMatrix.preRotate(rotation, centerX, centerY);
+                shader.setLocalMatrix(rotationMatrix);
+            }
+            mCache.put(mProbe.copy(), shader);
+        }
+        return shader;
+    }
+
+    /**
+     * Register for memory trim notifications so the cache is released when the system is low
+     * on memory. Only the first call has any effect
+     *
+     * @param context Context used to register
+     */
+    static public void initialize(@NonNull Context context) {
+        if (mRegistered) {
+            return;
+        }
+        mRegistered = true;
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                clear();
+            }
+
+            @Override
+            public void onTrimMemory(int level) {
+                ShaderCache.onTrimMemory(level);
+            }
+        });
+    }
+
+    /**
+     * Release cached shaders in response to memory pressure. Half the cache is released when
+     * the UI is hidden and the complete cache once the app is in the background
+     *
+     * @param level trim level as passed to {@link ComponentCallbacks2#onTrimMemory(int)}
+     */
+    static public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            mCache.trimToSize(MAX_ENTRIES / 2);
+            ShadowCache.trimToHalf();
+        }
+    }
+
+    /**
+     * Key identifying a shader by its type, geometry, colors and positions
+     */
+    static private class Key {
+        static final int TYPE_LINEAR = 1;
+        static final int TYPE_SWEEP = 2;
+        private final float[] mGeometry = new float[4];
+        private int[] mColors;
+        private int mHash;
+        private float[] mPositions;
+        private int mType;
+
+        Key copy() {
+            Key key = new Key();
+            key.set(mType, mGeometry[0], mGeometry[1], mGeometry[2], mGeometry[3], mColors.clone(),
+                    mPositions != null ? mPositions.clone() : null);
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mType == key.mType && Arrays.equals(mGeometry, key.mGeometry) &&
+                    Arrays.equals(mColors, key.mColors) && Arrays.equals(mPositions, key.mPositions);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        void set(int type, float value0, float value1, float value2, float value3, @NonNull int[] colors,
+                 @Nullable float[] positions) {
+            mType = type;
+            mGeometry[0] = value0;
+            mGeometry[1] = value1;
+            mGeometry[2] = value2;
+            mGeometry[3] = value3;
+            mColors = colors;
+            mPositions = positions;
+            int hash = type;
+            hash = 31 * hash + Arrays.hashCode(mGeometry);
+            hash = 31 * hash + Arrays.hashCode(colors);
+            hash = 31 * hash + Arrays.hashCode(positions);
+            mHash = hash;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2015 Brent Marriott
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gerwalex.counterimageview.charts;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Process wide cache of pre-rendered drop shadows. The shadow of a complete ring or disc is
+ * blurred once into an alpha bitmap and returned as a shader. Drawing the visible part of the
+ * series with that shader and the shadow color gives the shadow without computing a blur on
+ * every frame, and without the software rendering a paint shadow layer requires on older API
+ * levels.
+ * <p/>
+ * The blur is smooth, so masks are rendered at a reduced scale and filtered when drawn.
+ * Shadows only depend on the geometry of the series, so series that differ only in color share
+ * one mask.
+ * <p/>
+ * All access is expected from the UI thread.
+ */
+final class ShadowCache {
+    /**
+     * Distance the shadow extends beyond the series, in multiples of the shadow size
+     */
+    static final float EXTENT = 2f;
+    /**
+     * Maximum number of bytes of mask bitmaps held in the cache
+     */
+    static private final int MAX_BYTES = 4 * 1024 * 1024;
+    /**
+     * Scale the masks are rendered at, relative to the view
+     */
+    static private final float MASK_SCALE = 0.5f;
+    static private final LruCache<Key, Mask> mCache = new LruCache<Key, Mask>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(Key key, Mask mask) {
+            return mask.mBitmap.getByteCount();
+        }
+    };
+    /**
+     * Reusable key used to look up the cache without allocating
+     */
+    static private final Key mProbe = new Key();
+
+    private ShadowCache() {
+    }
+
+    /**
+     * Remove all masks from the cache. Series already holding a mask keep using it until their
+     * bounds or style change
+     */
+    static void clear() {
+        mCache.evictAll();
+    }
+
+    /**
+     * Retrieve the shadow of a complete ring, or of a complete disc when filled
+     *
+     * @param oval       Bounds of the series
+     * @param lineWidth  Width of the line, ignored when filled
+     * @param shadowSize Size of the shadow, as passed to {@link SeriesItem.Builder#setShadowSize(float)}
+     * @param fill       true for the shadow of a disc
+     * @return Shared shader holding the shadow as an alpha mask, positioned in view coordinates
+     */
+    @NonNull
+    static Shader getShadow(@NonNull RectF oval, float lineWidth, float shadowSize, boolean fill) {
+        mProbe.set(oval, lineWidth, shadowSize, fill);
+        Mask mask = mCache.get(mProbe);
+        if (mask == null) {
+            mask = new Mask(oval, fill ? 0 : lineWidth, shadowSize, fill);
+            mCache.put(mProbe.copy(), mask);
+        }
+        return mask.mShader;
+    }
+
+    /**
+     * Release half the cache in response to memory pressure, see
+     * {@link ShaderCache#onTrimMemory(int)}
+     */
+    static void trimToHalf() {
+        mCache.trimToSize(MAX_BYTES / 2);
+    }
+
+    /**
+     * Key identifying a mask by the bounds, line width, shadow size and style of the series
+     */
+    static private class Key {
+        private final float[] mGeometry = new float[6];
+        private int mHash;
+
+        Key copy() {
+            Key key = new Key();
+            System.arraycopy(mGeometry, 0, key.mGeometry, 0, mGeometry.length);
+            key.mHash = mHash;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            return Arrays.equals(mGeometry, ((Key) o).mGeometry);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        void set(@NonNull RectF oval, float lineWidth, float shadowSize, boolean fill) {
+            mGeometry[0] = oval.left;
+            mGeometry[1] = oval.top;
+            mGeometry[2] = oval.right;
+            mGeometry[3] = oval.bottom;
+            // The line width does not apply to a disc, which is marked by a negative width
+            mGeometry[4] = fill ? -1 : lineWidth;
+            mGeometry[5] = shadowSize;
+            mHash = Arrays.hashCode(mGeometry);
+        }
+    }
+
+    /**
+     * Blurred alpha bitmap of one shadow and the shader used to draw it
+     */
+    static private class Mask {
+        private final Bitmap mBitmap;
+        private final Shader mShader;
+
+        Mask(@NonNull RectF oval, float lineWidth, float shadowSize, boolean fill) {
+            final float margin = (lineWidth / 2) + (shadowSize * EXTENT);
+            final float left = oval.left - margin;
+            final float top = oval.top - margin;
+            final int width = (int) Math.ceil((oval.width() + margin * 2) * MASK_SCALE);
+            final int height = (int) Math.ceil((oval.height() + margin * 2) * MASK_SCALE);
+            mBitmap = Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ALPHA_8);
+            Canvas canvas = new Canvas(mBitmap);
+            canvas.scale(MASK_SCALE, MASK_SCALE);
+            canvas.translate(-left, -top);
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setStyle(fill ? Paint.Style.FILL : Paint.Style.STROKE);
+            paint.setStrokeWidth(lineWidth);
+            paint.setMaskFilter(new BlurMaskFilter(shadowSize, BlurMaskFilter.Blur.NORMAL));
+            canvas.drawOval(oval, paint);
+            mShader = new BitmapShader(mBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            Matrix matrix = new Matrix();
+            matrix.setScale(1 / MASK_SCALE, 1 / MASK_SCALE);
+            matrix.postTranslate(left, top);
+            mShader.setLocalMatrix(matrix);
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.gerwalex.counterimageview.events;
 
 import android.os.Build;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.view.View;
 import android.view.animation.AlphaAnimation;
 import android.view.animation.Animation;
@@ -27,6 +28,8 @@ import androidx.annotation.NonNull;
 import com.gerwalex.counterimageview.DecoView;
 import com.gerwalex.counterimageview.charts.DecoDrawEffect;
 
+import java.util.ArrayList;
+
 /**
  * Event manager for processing {@link DecoEvent} at the scheduled time (or immediately if no
  * delay is set). This class is also responsible for processing the hide/show fade effects of linked
@@ -43,6 +46,19 @@ public class DecoEventManager {
     private final Handler mHandler = new Handler();
 
     private final ArcEventManagerListener mListener;
+    /**
+     * Events that have been scheduled but not yet executed. Kept so the pending delays can be
+     * suspended and resumed with {@link #pause()} and {@link #resume()}
+     */
+    private final ArrayList<ScheduledEvent> mPending = new ArrayList<>();
+    /**
+     * Render linked views into a hardware layer while they fade
+     */
+    private boolean mHardwareLayersEnabled = true;
+    /**
+     * Is the event clock currently paused
+     */
+    private boolean mIsPaused;
 
     public DecoEventManager(@NonNull ArcEventManagerListener listener) {//DynamicArcView arcView) {
         mListener = listener;
@@ -54,60 +70,40 @@ public class DecoEventManager {
      * @param event DecoEvent to add
      */
     public void add(@NonNull final DecoEvent event) {
-        /**
-         * Determine if we need to show and linked views attached to the event. This is useful
-         * when scheduling an event at a later time and have the linked view automatically
-         * faded in when the event is started. The user could do this themselves by setting
-         * a listener on the event start.
-         */
-        final boolean show = (event.getEventType() == DecoEvent.EventType.EVENT_SHOW) ||
-                (event.getEffectType() == DecoDrawEffect.EffectType.EFFECT_SPIRAL_OUT) ||
-                (event.getEffectType() == DecoDrawEffect.EffectType.EFFECT_SPIRAL_OUT_FILL);
-        final boolean ignore = event.getEventType() == DecoEvent.EventType.EVENT_MOVE;
-        mHandler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                if (show && event.getLinkedViews() != null) {
-                    for (View view : event.getLinkedViews()) {
-                        // Issue with ICS where View is not displayed after the setVisibility() call if it has no text
-                        // This results in subsequent calls to setText also not being visible
-                        if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.ICE_CREAM_SANDWICH_MR1 &&
-                                view instanceof TextView) {
-                            TextView textView = (TextView) view;
-                            if (textView.getText().length() <= 0) {
-                                textView.setText(" ");
-                            }
-                        }
-                        view.setVisibility(View.VISIBLE);
-                    }
-                }
-                if (!ignore && event.getLinkedViews() != null) {
-                    for (final View view : event.getLinkedViews()) {
-                        AlphaAnimation anim = new AlphaAnimation(show ? 0.0f : 1.0f, show ? 1.0f : 0.0f);
-                        anim.setDuration(event.getFadeDuration());
-                        anim.setFillAfter(true);
-                        anim.setAnimationListener(new Animation.AnimationListener() {
-                            @Override
-                            public void onAnimationEnd(Animation animation) {
-                                view.setVisibility(show ? View.VISIBLE : View.INVISIBLE);
-                            }
+        ScheduledEvent scheduledEvent = new ScheduledEvent(event);
+        mPending.add(scheduledEvent);
+        if (mIsPaused) {
+            // Clock is stopped, the event will be posted when resumed
+            scheduledEvent.mRemaining = event.getDelay();
+            return;
+        }
+        scheduledEvent.post(event.getDelay());
+    }
 
-                            @Override
-                            public void onAnimationRepeat(Animation animation) {
-                            }
+    /**
+     * Is the event clock currently paused
+     *
+     * @return true if paused
+     */
+    public boolean isPaused() {
+        return mIsPaused;
+    }
 
-                            @Override
-                            public void onAnimationStart(Animation animation) {
-                            }
-                        });
-                        view.startAnimation(anim);
-                    }
-                }
-                if (mListener != null) {
-                    mListener.onExecuteEventStart(event);
-                }
-            }
-        }, event.getDelay());
+    /**
+     * Stop the clock for all pending events. The remaining delay of each event is kept so the
+     * events fire at the correct relative time once {@link #resume()} is called
+     */
+    public void pause() {
+        if (mIsPaused) {
+            return;
+        }
+        mIsPaused = true;
+        final long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < mPending.size(); i++) {
+            ScheduledEvent scheduledEvent = mPending.get(i);
+            mHandler.removeCallbacks(scheduledEvent);
+            scheduledEvent.mRemaining = Math.max(0, scheduledEvent.mExecuteTime - now);
+        }
     }
 
     /**
@@ -115,6 +111,32 @@ public class DecoEventManager {
      */
     public void resetEvents() {
         mHandler.removeCallbacksAndMessages(null);
+        mPending.clear();
+    }
+
+    /**
+     * Linked views faded in or out by an event are switched to a hardware layer for the
+     * duration of the fade, so the alpha animation composites a texture rather than redrawing
+     * the view on every frame. Views that already have a layer type set are left untouched
+     *
+     * @param enabled true to use hardware layers for linked view fades
+     */
+    public void setHardwareLayersEnabled(boolean enabled) {
+        mHardwareLayersEnabled = enabled;
+    }
+
+    /**
+     * Restart the clock for all pending events that were suspended by {@link #pause()}
+     */
+    public void resume() {
+        if (!mIsPaused) {
+            return;
+        }
+        mIsPaused = false;
+        for (int i = 0; i < mPending.size(); i++) {
+            ScheduledEvent scheduledEvent = mPending.get(i);
+            scheduledEvent.post(scheduledEvent.mRemaining);
+        }
     }
 
     /**
@@ -123,4 +145,93 @@ public class DecoEventManager {
     public interface ArcEventManagerListener {
         void onExecuteEventStart(@NonNull DecoEvent event);
     }
+
+    /**
+     * A {@link DecoEvent} waiting on the handler for its delay to expire
+     */
+    private class ScheduledEvent implements Runnable {
+        private final DecoEvent mEvent;
+        /**
+         * Determine if we need to show and linked views attached to the event. This is useful
+         * when scheduling an event at a later time and have the linked view automatically
+         * faded in when the event is started. The user could do this themselves by setting
+         * a listener on the event start.
+         */
+        private final boolean mShow;
+        private final boolean mIgnore;
+        /**
+         * Uptime at which the event is due to be executed
+         */
+        private long mExecuteTime;
+        /**
+         * Delay remaining when the clock was paused
+         */
+        private long mRemaining;
+
+        ScheduledEvent(@NonNull DecoEvent event) {
+            mEvent = event;
+            mShow = (event.getEventType() == DecoEvent.EventType.EVENT_SHOW) ||
+                    (event.getEffectType() == DecoDrawEffect.EffectType.EFFECT_SPIRAL_OUT) ||
+                    (event.getEffectType() == DecoDrawEffect.EffectType.EFFECT_SPIRAL_OUT_FILL);
+            mIgnore = event.getEventType() == DecoEvent.EventType.EVENT_MOVE;
+        }
+
+        void post(long delay) {
+            mExecuteTime = SystemClock.uptimeMillis() + delay;
+            mHandler.postAtTime(this, mExecuteTime);
+        }
+
+        @Override
+        public void run() {
+            mPending.remove(this);
+            final DecoEvent event = mEvent;
+            final boolean show = mShow;
+            if (show && event.getLinkedViews() != null) {
+                for (View view : event.getLinkedViews()) {
+                    // Issue with ICS where View is not displayed after the setVisibility() call if it has no text
+                    // This results in subsequent calls to setText also not being visible
+                    if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.ICE_CREAM_SANDWICH_MR1 &&
+                            view instanceof TextView) {
+                        TextView textView = (TextView) view;
+                        if (textView.getText().length() <= 0) {
+                            textView.setText(" ");
+                        }
+                    }
+                    view.setVisibility(View.VISIBLE);
+                }
+            }
+            if (!mIgnore && event.getLinkedViews() != null) {
+                for (final View view : event.getLinkedViews()) {
+                    final boolean useLayer = mHardwareLayersEnabled && view.getLayerType() == View.LAYER_TYPE_NONE;
+                    if (useLayer) {
+                        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+                    }
+                    AlphaAnimation anim = new AlphaAnimation(show ? 0.0f : 1.0f, show ? 1.0f : 0.0f);
+                    anim.setDuration(event.getFadeDuration());
+                    anim.setFillAfter(true);
+                    anim.setAnimationListener(new Animation.AnimationListener() {
+                        @Override
+                        public void onAnimationEnd(Animation animation) {
+                            if (useLayer) {
+                                view.setLayerType(View.LAYER_TYPE_NONE, null);
+                            }
+                            view.setVisibility(show ? View.VISIBLE : View.INVISIBLE);
+                        }
+
+                        @Override
+                        public void onAnimationRepeat(Animation animation) {
+                        }
+
+                        @Override
+                        public void onAnimationStart(Animation animation) {
+                        }
+                    });
+                    view.startAnimation(anim);
+                }
+            }
+            if (mListener != null) {
+                mListener.onExecuteEventStart(event);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.gerwalex.counterimageview.charts;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test comparing {@link LabelFormat} with {@link String#format(String, Object...)}
+ */
+public class LabelFormatTest {
+    static private final String[] LABELS =
+            {"%f", "%.0f", "%.1f", "%.2f", "%.3f", "%.4f", "%.5f", "%.6f", "Goal %.0f%%", "%.1f min to goal"};
+    static private final float[] VALUES =
+            {0f, -0f, 1f, -1f, 0.5f, -0.5f, 1.5f, -1.5f, 2.5f, -2.5f, 0.05f, -0.05f, 0.25f, -0.25f, 0.125f,
+                    -0.125f, 0.375f, 0.0625f, -0.0625f, 0.03125f, 1.005f, 2.675f, -2.675f, 0.045f, 0.0000005f,
+                    -0.0000005f, 0.00000049f, 9.995f, 99.5f, -99.5f, 999999.5f, 0.1f, 0.7f, 123.456f, -123.456f,
+                    16777216f, 16777217f, 5e11f, -5e11f, 9.9999997e11f};
+
+    private static void assertFormat(String label, float value) {
+        LabelFormat format = new LabelFormat(label);
+        // Percent labels show the percentage complete, other labels show the position
+        int length = format.format(value / 100f, value);
+        float expected = label.contains("%%") ? (value / 100f) * 100f : value;
+        assertEquals(label + " of " + value, String.format(label, expected), new String(format.getText(), 0, length));
+    }
+
+    @Test
+    public void format_matchesStringFormat() {
+        for (String label : LABELS) {
+            for (float value : VALUES) {
+                assertFormat(label, value);
+            }
+        }
+    }
+
+    @Test
+    public void format_halfBoundaries() {
+        // Values exactly half way between two results at each precision
+        for (int precision = 0; precision <= 6; precision++) {
+            String label = "%." + precision + "f";
+            float step = (float) Math.pow(10, -precision);
+            for (int i = -200; i <= 200; i++) {
+                assertFormat(label, (i + 0.5f) * step);
+                assertFormat(label, (float) ((i + 0.5) / Math.pow(2, precision)));
+            }
+        }
+    }
+
+    @Test
+    public void format_randomValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String label = LABELS[random.nextInt(LABELS.length)];
+            float value = (float) ((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(10)));
+            assertFormat(label, value);
+            assertFormat(label, Float.intBitsToFloat(random.nextInt()));
+        }
+    }
+}